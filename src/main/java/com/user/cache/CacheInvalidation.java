@@ -0,0 +1,20 @@
+package com.user.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Message telling every other node that its near cache entry for the key is stale.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class CacheInvalidation {
+
+    private final String region;
+
+    private final Object key;
+
+    private final String origin;
+}
@@ -0,0 +1,33 @@
+package com.user.cache;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Second tier cache shared by every replica of the service, plus the channel used to
+ * broadcast {@link CacheInvalidation} messages between replicas.
+ * <p>
+ * Implementations backed by a remote store are responsible for serializing keys and values.
+ */
+public interface DistributedCache {
+
+    /**
+     * @param region Cache region
+     * @param key    Key
+     * @return The cached value, null if absent or expired
+     */
+    Object get(String region, Object key);
+
+    void put(String region, Object key, Object value, Duration ttl);
+
+    void evict(String region, Object key);
+
+    /**
+     * Deliver the message to the subscribers of every node, including the publishing one.
+     *
+     * @param invalidation Invalidation message
+     */
+    void publish(CacheInvalidation invalidation);
+
+    void subscribe(Consumer<CacheInvalidation> listener);
+}
@@ -0,0 +1,94 @@
+package com.user.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Embedded {@link DistributedCache} kept in the memory of this JVM.
+ * <p>
+ * Used for a single replica and in tests, where several {@link TwoTierCacheManager}s sharing
+ * one instance stand in for several nodes. Messages are delivered synchronously.
+ */
+public class InMemoryDistributedCache implements DistributedCache {
+
+    private final long maximumSizePerRegion;
+
+    private final Map<String, Cache<Object, Entry>> regions = new ConcurrentHashMap<>();
+
+    private final List<Consumer<CacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    public InMemoryDistributedCache(long maximumSizePerRegion) {
+        this.maximumSizePerRegion = maximumSizePerRegion;
+    }
+
+    @Override
+    public Object get(String region, Object key) {
+        Entry entry = region(region).getIfPresent(key);
+        return entry == null ? null : entry.value;
+    }
+
+    @Override
+    public void put(String region, Object key, Object value, Duration ttl) {
+        region(region).put(key, new Entry(value, ttl.toNanos()));
+    }
+
+    @Override
+    public void evict(String region, Object key) {
+        region(region).invalidate(key);
+    }
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        listeners.forEach(listener -> listener.accept(invalidation));
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> listener) {
+        listeners.add(listener);
+    }
+
+    private Cache<Object, Entry> region(String region) {
+        return regions.computeIfAbsent(region, name -> Caffeine.newBuilder()
+                .maximumSize(maximumSizePerRegion)
+                .expireAfter(new EntryExpiry())
+                .build());
+    }
+
+    private static class Entry {
+
+        private final Object value;
+
+        private final long ttlNanos;
+
+        Entry(Object value, long ttlNanos) {
+            this.value = value;
+            this.ttlNanos = ttlNanos;
+        }
+    }
+
+    private static class EntryExpiry implements Expiry<Object, Entry> {
+
+        @Override
+        public long expireAfterCreate(Object key, Entry value, long currentTime) {
+            return Math.max(0, value.ttlNanos);
+        }
+
+        @Override
+        public long expireAfterUpdate(Object key, Entry value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Object key, Entry value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
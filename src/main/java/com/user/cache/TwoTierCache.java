@@ -0,0 +1,142 @@
+package com.user.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * In-process near cache (L1) in front of the {@link DistributedCache} (L2).
+ * <p>
+ * Reads go L1, then L2, then the loader; concurrent L1 misses for a key share one load.
+ * Writes and invalidations go to both tiers and are broadcast so the near caches of the
+ * other nodes drop the key. Hit rates of the near cache are published under the "cache.*"
+ * meters tagged with the region name.
+ * <p>
+ * A loaded value is only written to L2 if no write or invalidation of the key was seen while
+ * loading, so a value read from the database just before a concurrent update is not published
+ * after that update evicted the key.
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+public class TwoTierCache<K, V> {
+
+    private static final int GENERATION_STRIPES = 64;
+
+    private final String region;
+
+    private final TwoTierCacheManager manager;
+
+    private final DistributedCache distributedCache;
+
+    private final Function<V, Duration> ttl;
+
+    private final Cache<K, V> nearCache;
+
+    /** Bumped on every write or invalidation, per stripe of keys */
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    @SuppressWarnings("unchecked")
+    TwoTierCache(String region, TwoTierCacheManager manager, long maximumSize, Function<V, Duration> ttl) {
+        this.region = region;
+        this.manager = manager;
+        this.distributedCache = manager.getDistributedCache();
+        this.ttl = ttl;
+        this.nearCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new NearCacheExpiry<>(ttl, manager.getNearCacheTtl().toNanos()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(manager.getMeterRegistry(), nearCache, region);
+        manager.onInvalidation(region, key -> {
+            nextGeneration(key);
+            nearCache.invalidate((K) key);
+        });
+    }
+
+    /**
+     * @param key    Key
+     * @param loader Called on a miss in both tiers, a null result is not cached
+     * @return Cached or loaded value
+     */
+    @SuppressWarnings("unchecked")
+    public V get(K key, Function<K, V> loader) {
+        return nearCache.get(key, k -> {
+            V value = (V) distributedCache.get(region, k);
+            if (value == null) {
+                long generation = generations.get(stripe(k));
+                value = loader.apply(k);
+                if (value != null && generations.get(stripe(k)) == generation) {
+                    distributedCache.put(region, k, value, ttl.apply(value));
+                }
+            }
+            return value;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    public V getIfPresent(K key) {
+        V value = nearCache.getIfPresent(key);
+        if (value == null) {
+            value = (V) distributedCache.get(region, key);
+            if (value != null) {
+                nearCache.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    public void put(K key, V value) {
+        nextGeneration(key);
+        nearCache.put(key, value);
+        distributedCache.put(region, key, value, ttl.apply(value));
+        manager.publishInvalidation(region, key);
+    }
+
+    public void invalidate(K key) {
+        nextGeneration(key);
+        nearCache.invalidate(key);
+        distributedCache.evict(region, key);
+        manager.publishInvalidation(region, key);
+    }
+
+    private void nextGeneration(Object key) {
+        generations.incrementAndGet(stripe(key));
+    }
+
+    private static int stripe(Object key) {
+        return Math.floorMod(key.hashCode(), GENERATION_STRIPES);
+    }
+
+    private static class NearCacheExpiry<K, V> implements Expiry<K, V> {
+
+        private final Function<V, Duration> ttl;
+
+        private final long maximumTtlNanos;
+
+        NearCacheExpiry(Function<V, Duration> ttl, long maximumTtlNanos) {
+            this.ttl = ttl;
+            this.maximumTtlNanos = maximumTtlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(K key, V value, long currentTime) {
+            return Math.max(0, Math.min(maximumTtlNanos, ttl.apply(value).toNanos()));
+        }
+
+        @Override
+        public long expireAfterUpdate(K key, V value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(K key, V value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.user.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Creates {@link TwoTierCache}s on top of the {@link DistributedCache} and routes the invalidation
+ * messages published by other nodes to the region they belong to.
+ * <p>
+ * Near cache entries live at most the near cache TTL, which bounds how long a node can serve a
+ * stale value even if an invalidation message is lost.
+ */
+@Slf4j
+@Component
+public class TwoTierCacheManager {
+
+    @Getter
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Getter
+    private final DistributedCache distributedCache;
+
+    @Getter
+    private final MeterRegistry meterRegistry;
+
+    @Getter
+    private final Duration nearCacheTtl;
+
+    private final Map<String, Consumer<Object>> invalidationListeners = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TwoTierCacheManager(final DistributedCache distributedCache,
+                               final MeterRegistry meterRegistry,
+                               @Value("${application.cache.near-cache-ttl:30000}") long nearCacheTtl) {
+        this.distributedCache = distributedCache;
+        this.meterRegistry = meterRegistry;
+        this.nearCacheTtl = Duration.ofMillis(nearCacheTtl);
+        distributedCache.subscribe(this::onInvalidation);
+    }
+
+    /**
+     * @param region      Cache region, unique per cache
+     * @param maximumSize Maximum entries of the near cache
+     * @param ttl         Time to live of a value in the distributed cache
+     * @return New Two Tier Cache
+     */
+    public <K, V> TwoTierCache<K, V> create(String region, long maximumSize, Function<V, Duration> ttl) {
+        return new TwoTierCache<>(region, this, maximumSize, ttl);
+    }
+
+    /**
+     * Register the handler for invalidations of the region published by other nodes.
+     *
+     * @param region   Cache region
+     * @param listener Receives the invalidated key
+     */
+    public void onInvalidation(String region, Consumer<Object> listener) {
+        if (invalidationListeners.putIfAbsent(region, listener) != null) {
+            throw new IllegalStateException("Cache region already registered: " + region);
+        }
+    }
+
+    public void publishInvalidation(String region, Object key) {
+        distributedCache.publish(new CacheInvalidation(region, key, nodeId));
+    }
+
+    private void onInvalidation(CacheInvalidation invalidation) {
+        if (nodeId.equals(invalidation.getOrigin())) {
+            return;
+        }
+        Consumer<Object> listener = invalidationListeners.get(invalidation.getRegion());
+        if (listener != null) {
+            log.debug("Received cache invalidation: {}", invalidation);
+            listener.accept(invalidation.getKey());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.user.cache;
+
+import com.user.pojo.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of user profiles by user id, shared between replicas through a {@link TwoTierCache}.
+ * <p>
+ * Unknown ids are cached as empty results with a shorter TTL so repeated lookups of missing
+ * users do not reach the database. Concurrent misses for the same id share a single load.
+ * Hit rates are published under the "cache.*" meters with the tag cache=userProfiles.
+ */
+@Component
+public class UserProfileCache {
+
+    static final String CACHE_NAME = "userProfiles";
+
+    private final TwoTierCache<Integer, Optional<User>> cache;
+
+    @Autowired
+    public UserProfileCache(@Value("${application.cache.user-profile.maximum-size:10000}") long maximumSize,
+                            @Value("${application.cache.user-profile.ttl:300000}") long ttl,
+                            @Value("${application.cache.user-profile.negative-ttl:30000}") long negativeTtl,
+                            TwoTierCacheManager cacheManager) {
+        final Duration positive = Duration.ofMillis(ttl);
+        final Duration negative = Duration.ofMillis(negativeTtl);
+        this.cache = cacheManager.create(CACHE_NAME, maximumSize, user -> user.isPresent() ? positive : negative);
+    }
+
+    /**
+     * @param userId User IDENTIFIER
+     * @param loader Database lookup, called at most once for concurrent misses of the same id on a node
+     * @return The user, empty if no user exists for the id
+     */
+    public Optional<User> get(Integer userId, Function<Integer, Optional<User>> loader) {
+        return cache.get(userId, loader);
+    }
+
+    /**
+     * Evict the user on every node, must be called after every write to the user.
+     *
+     * @param userId User IDENTIFIER
+     */
+    public void invalidate(Integer userId) {
+        cache.invalidate(userId);
+    }
+}
@@ -1,6 +1,7 @@
 package com.user.config;
 
 import com.user.utils.Constants;
+import com.user.utils.RequestIdGenerator;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
@@ -9,37 +10,52 @@ import org.slf4j.MDC;
 import org.springframework.web.servlet.HandlerInterceptor;
 import org.springframework.web.servlet.ModelAndView;
 
-import java.security.SecureRandom;
 import java.util.Enumeration;
 
 @Slf4j
 public class APIRequestInterceptor implements HandlerInterceptor {
 
+    /**
+     * Request attribute holding the reqId, received or generated, of every intercepted request.
+     */
+    public static final String REQ_ID_ATTRIBUTE = APIRequestInterceptor.class.getName() + ".reqId";
+
+    /**
+     * @param request Servlet Request
+     * @return reqId of the request, null if the request was not intercepted
+     */
+    public static String getReqId(HttpServletRequest request) {
+        return request.getAttribute(REQ_ID_ATTRIBUTE) instanceof String reqId ? reqId : null;
+    }
+
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
-        MDC.clear();
+        // Only the reqId is ours, the trace and span ids belong to the observation wrapping the request
+        MDC.remove(Constants.REQ_ID_KEY);
 
         long start = System.currentTimeMillis();
-        MDC.put(Constants.REQUEST_START_TIME, Long.toString(start));
 
-        log.debug("Interceptor Started at {}", start);
-        Enumeration<String> headerNames = request.getHeaderNames();
-        while (headerNames != null && headerNames.hasMoreElements()) {
-            String name = headerNames.nextElement();
-            log.debug("Request Header Name: {}, Value: {}", name, request.getHeader(name));
+        // Walking the headers allocates on every request, only do it when it is going to be logged
+        if (log.isDebugEnabled()) {
+            log.debug("Interceptor Started at {}", start);
+            Enumeration<String> headerNames = request.getHeaderNames();
+            while (headerNames != null && headerNames.hasMoreElements()) {
+                String name = headerNames.nextElement();
+                log.debug("Request Header Name: {}, Value: {}", name, request.getHeader(name));
+            }
         }
 
         String reqId = request.getHeader(Constants.REQ_ID_KEY);
         if (!StringUtils.isEmpty(reqId)) {
-            log.info("Received API Request ReqId: {}", reqId);
+            log.debug("Received API Request ReqId: {}", reqId);
         } else {
-            reqId = "REQ" + String.valueOf(System.currentTimeMillis()) +
-                    Math.abs(request.getRequestURI().concat(String.valueOf(new SecureRandom().nextInt())).hashCode());
-            log.info("Generated API Request ReqId: {}", reqId);
+            reqId = RequestIdGenerator.nextId();
+            log.debug("Generated API Request ReqId: {}", reqId);
         }
 
+        request.setAttribute(REQ_ID_ATTRIBUTE, reqId);
         MDC.put(Constants.REQ_ID_KEY, reqId);
-        log.info("Request interceptor took {} (ms) time", System.currentTimeMillis() - start);
+        log.debug("Request interceptor took {} (ms) time", System.currentTimeMillis() - start);
         return true;
     }
 
@@ -50,6 +66,6 @@ public class APIRequestInterceptor implements HandlerInterceptor {
 
     @Override
     public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) throws Exception {
-        MDC.clear();
+        MDC.remove(Constants.REQ_ID_KEY);
     }
 }
@@ -4,64 +4,67 @@ import com.user.models.response.APIResponseEntity;
 import com.user.utils.Constants;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
-import org.slf4j.MDC;
 import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpEntity;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.server.ServerHttpRequest;
 import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stamps the reqId on successful {@link APIResponseEntity} bodies.
+ * <p>
+ * Whether a handler method returns an {@link APIResponseEntity} is resolved once per return type,
+ * every other response, Swagger resources included, skips {@link #beforeBodyWrite} entirely.
+ */
 @Slf4j
 @ControllerAdvice
 public class APIResponseInterceptor implements ResponseBodyAdvice<Object> {
 
+    private final Map<MethodParameter, Boolean> apiResponseReturnTypes = new ConcurrentHashMap<>();
+
     @Override
     public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
-        return true;
+        return apiResponseReturnTypes.computeIfAbsent(returnType, APIResponseInterceptor::returnsApiResponse);
     }
 
     @Override
-    @SuppressWarnings({"unchecked", "rawtypes"})
     public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
                                   Class<? extends HttpMessageConverter<?>> selectedConverterType,
                                   ServerHttpRequest request, ServerHttpResponse response) {
 
-        String reqId = request.getHeaders().getFirst(Constants.REQ_ID_KEY);
-        String message = null;
-
-        if (body instanceof APIResponseEntity<?>) {
-            APIResponseEntity responseEntity = (APIResponseEntity) body;
-
-            String code = responseEntity.getCode();
-            String status = responseEntity.getStatus();
-            message = responseEntity.getMessage();
-
-            if (StringUtils.equals(status, Constants.STATUS_SUCCESS) && StringUtils.equals(code, Constants.SUCCESS_CODE)) {
-                if (StringUtils.isBlank(reqId)) {
-                    reqId = MDC.get(Constants.REQ_ID_KEY);
-                }
-
-                if (!StringUtils.isBlank(reqId)) {
-                    responseEntity.setReqId(reqId);
-                }
-                responseEntity.setCode(Constants.SUCCESS_CODE);
+        if (body instanceof APIResponseEntity<?> responseEntity
+                && Constants.STATUS_SUCCESS.equals(responseEntity.getStatus())
+                && Constants.SUCCESS_CODE.equals(responseEntity.getCode())) {
+            String reqId = request instanceof ServletServerHttpRequest servletRequest
+                    ? APIRequestInterceptor.getReqId(servletRequest.getServletRequest())
+                    : null;
+            if (reqId == null) {
+                reqId = request.getHeaders().getFirst(Constants.REQ_ID_KEY);
+            }
+            if (!StringUtils.isBlank(reqId)) {
+                responseEntity.setReqId(reqId);
             }
         }
+        return body;
+    }
 
-        String requestStartTime = MDC.get(Constants.REQUEST_START_TIME);
-        String requestURI = request.getURI().toString();
-
-        if (StringUtils.isNumeric(requestStartTime)) {
-            long startTime = Long.parseLong(requestStartTime);
-            long endTime = System.currentTimeMillis();
-            log.info("URI: {}, Total Request Time: {} (ms), Message: {}", requestURI, endTime - startTime, message);
-        } else {
-            log.info("URI: {}, Message: {} ", requestURI, message);
+    /**
+     * @param returnType Handler method return type
+     * @return true for {@link APIResponseEntity}, or an {@link HttpEntity} of one
+     */
+    static boolean returnsApiResponse(MethodParameter returnType) {
+        ResolvableType type = ResolvableType.forMethodParameter(returnType);
+        if (HttpEntity.class.isAssignableFrom(type.toClass())) {
+            type = type.as(HttpEntity.class).getGeneric(0);
         }
-
-        MDC.clear();
-        return body;
+        return APIResponseEntity.class.isAssignableFrom(type.toClass());
     }
 }
@@ -0,0 +1,110 @@
+package com.user.config;
+
+import com.user.utils.Constants;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Writes one key=value access log record per request to the "ACCESS_LOG" logger,
+ * which logback-spring.xml routes through an asynchronous appender.
+ * <p>
+ * Failed and slow requests are always logged, successful ones only at the sample rate.
+ * Errors are answered with HTTP 200 and an error body, so {@link GlobalExceptionHandler}
+ * marks them with the {@link #ERROR_ATTRIBUTE} request attribute. Request bodies are never
+ * logged and secret query parameters are redacted.
+ */
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    public static final String ERROR_ATTRIBUTE = AccessLogFilter.class.getName() + ".error";
+
+    private static final Logger ACCESS_LOG = LoggerFactory.getLogger("ACCESS_LOG");
+
+    private static final Set<String> SECRET_PARAMETERS = Set.of("token", "password", "refresh_token", "secret");
+
+    private final double sampleRate;
+
+    private final long slowThreshold;
+
+    public AccessLogFilter(double sampleRate, long slowThreshold) {
+        this.sampleRate = sampleRate;
+        this.slowThreshold = slowThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        final long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            final long duration = (System.nanoTime() - start) / 1_000_000;
+            Object error = failure != null ? failure.getClass().getSimpleName() : request.getAttribute(ERROR_ATTRIBUTE);
+            boolean failed = error != null || response.getStatus() >= 400;
+            if (ACCESS_LOG.isInfoEnabled() && (failed || duration >= slowThreshold || sampled())) {
+                ACCESS_LOG.info(record(request, response, duration, error));
+            }
+        }
+    }
+
+    private boolean sampled() {
+        return sampleRate >= 1.0 || (sampleRate > 0.0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    private static String record(HttpServletRequest request, HttpServletResponse response, long duration, Object error) {
+        String reqId = APIRequestInterceptor.getReqId(request);
+        if (reqId == null) {
+            reqId = request.getHeader(Constants.REQ_ID_KEY);
+        }
+        StringBuilder record = new StringBuilder(160)
+                .append("reqId=").append(reqId)
+                .append(" method=").append(request.getMethod())
+                .append(" path=").append(request.getRequestURI());
+        String query = request.getQueryString();
+        if (query != null) {
+            record.append(" query=");
+            appendRedacted(record, query);
+        }
+        record.append(" status=").append(response.getStatus())
+                .append(" durationMs=").append(duration);
+        if (error != null) {
+            record.append(" error=").append(error);
+        }
+        return record.toString();
+    }
+
+    private static void appendRedacted(StringBuilder record, String query) {
+        int start = 0;
+        while (start <= query.length()) {
+            int end = query.indexOf('&', start);
+            if (end < 0) {
+                end = query.length();
+            }
+            int equals = query.indexOf('=', start);
+            if (start > 0) {
+                record.append('&');
+            }
+            if (equals > start && equals < end && SECRET_PARAMETERS.contains(query.substring(start, equals))) {
+                record.append(query, start, equals + 1).append("***");
+            } else {
+                record.append(query, start, end);
+            }
+            start = end + 1;
+        }
+    }
+}
@@ -1,35 +1,80 @@
 package com.user.config;
 
 import com.user.repository.UserRepository;
+import com.user.security.BCryptStrengthCalibrator;
+import com.user.security.BoundedPasswordEncoder;
+import com.user.security.CaffeineUserCache;
+import com.user.security.JwtAuthenticationFilter;
+import com.user.security.TokenValidationFastPathFilter;
+import com.user.security.JwtService;
+import com.user.security.PasswordUpgradeService;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.servlet.HandlerExceptionResolver;
 
+import java.util.concurrent.ExecutorService;
+
 @Configuration
 @RequiredArgsConstructor
 public class ApplicationConfig {
 
     private final UserRepository repository;
 
+    private final JwtService jwtService;
+
+    private final PasswordUpgradeService passwordUpgradeService;
+
+    private final CaffeineUserCache userCache;
+
+    private final MeterRegistry meterRegistry;
+
     @Autowired
     @Qualifier("handlerExceptionResolver")
     private HandlerExceptionResolver exceptionResolver;
 
+    @Autowired
+    @Qualifier("passwordHashingExecutor")
+    private ExecutorService passwordHashingExecutor;
+
+    @Value("${application.security.password.bcrypt.strength:-1}")
+    private int bcryptStrength;
+
+    @Value("${application.security.password.bcrypt.target-latency:250}")
+    private long bcryptTargetLatency;
+
+    @Value("${application.security.password.hashing.timeout:2000}")
+    private long hashingTimeout;
+
+    /**
+     * Users are read through the login user cache. The provider has no user cache of its own,
+     * so a wrong password costs one hash check and no reload.
+     */
     @Bean
     public UserDetailsService userDetailsService() {
-        return username -> repository.findByEmail(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        return username -> {
+            UserDetails user = userCache.get(username, email -> repository.findByEmail(email).orElse(null));
+            if (user == null) {
+                throw new UsernameNotFoundException("User not found");
+            }
+            return user;
+        };
     }
 
     @Bean
@@ -37,6 +82,7 @@ public class ApplicationConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService());
         authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsPasswordService(passwordUpgradeService);
         return authProvider;
     }
 
@@ -45,13 +91,56 @@ public class ApplicationConfig {
         return config.getAuthenticationManager();
     }
 
+    /**
+     * BCrypt with a configured work factor, or one calibrated to the target latency when the
+     * strength is negative. Hashing runs on the bounded password hashing executor.
+     */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
-//
-//    @Bean
-//    public JwtAuthenticationFilter jwtAuthenticationFilter() {
-//        return new JwtAuthenticationFilter(this.exceptionResolver);
-//    }
-}
\ No newline at end of file
+        int strength = bcryptStrength < 0 ? BCryptStrengthCalibrator.calibrate(bcryptTargetLatency) : bcryptStrength;
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), passwordHashingExecutor,
+                hashingTimeout, meterRegistry);
+    }
+
+    @Bean
+    public JwtAuthenticationFilter jwtAuthenticationFilter() {
+        return new JwtAuthenticationFilter(this.jwtService, this.exceptionResolver);
+    }
+
+    /**
+     * The filter only runs inside the security filter chain, keep it out of the servlet filter chain.
+     */
+    @Bean
+    public FilterRegistrationBean<JwtAuthenticationFilter> jwtAuthenticationFilterRegistration(JwtAuthenticationFilter filter) {
+        FilterRegistrationBean<JwtAuthenticationFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    /**
+     * Token validation fast path, ordered just before the security filter chain.
+     */
+    @Bean
+    public FilterRegistrationBean<TokenValidationFastPathFilter> tokenValidationFastPathRegistration() {
+        FilterRegistrationBean<TokenValidationFastPathFilter> registration =
+                new FilterRegistrationBean<>(new TokenValidationFastPathFilter(this.jwtService));
+        registration.addUrlPatterns(TokenValidationFastPathFilter.PATH);
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+
+    /**
+     * One access log record per request, ahead of every other filter so the whole request is timed.
+     */
+    @Bean
+    public FilterRegistrationBean<AccessLogFilter> accessLogFilterRegistration(
+            @Value("${application.logging.access.enabled:true}") boolean enabled,
+            @Value("${application.logging.access.sample-rate:0.1}") double sampleRate,
+            @Value("${application.logging.access.slow-threshold:1000}") long slowThreshold) {
+        FilterRegistrationBean<AccessLogFilter> registration =
+                new FilterRegistrationBean<>(new AccessLogFilter(sampleRate, slowThreshold));
+        registration.setEnabled(enabled);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
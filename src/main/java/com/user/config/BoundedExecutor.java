@@ -0,0 +1,53 @@
+package com.user.config;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Executor starting a thread per task, with at most {@code concurrency} tasks running and
+ * {@code queueCapacity} more waiting for a slot. Tasks beyond that are rejected with a
+ * {@link RejectedExecutionException}, the same as a full fixed pool, instead of blocking the
+ * submitter. Meant for virtual threads, where a waiting task costs no platform thread.
+ */
+class BoundedExecutor implements Executor {
+
+    private final Executor threadPerTaskExecutor;
+
+    private final Semaphore admitted;
+
+    private final Semaphore running;
+
+    BoundedExecutor(Executor threadPerTaskExecutor, int concurrency, int queueCapacity) {
+        this.threadPerTaskExecutor = threadPerTaskExecutor;
+        this.admitted = new Semaphore(concurrency + queueCapacity);
+        this.running = new Semaphore(concurrency, true);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (!admitted.tryAcquire()) {
+            throw new RejectedExecutionException("Executor is full, task rejected");
+        }
+        try {
+            threadPerTaskExecutor.execute(() -> {
+                try {
+                    running.acquire();
+                } catch (InterruptedException e) {
+                    admitted.release();
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                try {
+                    task.run();
+                } finally {
+                    running.release();
+                    admitted.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            admitted.release();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.user.config;
+
+import com.user.cache.DistributedCache;
+import com.user.cache.InMemoryDistributedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CacheConfig {
+
+    /**
+     * Embedded second tier cache. Replace it by declaring another {@link DistributedCache} bean
+     * and setting application.cache.l2.type to a different value.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "application.cache.l2.type", havingValue = "in-memory", matchIfMissing = true)
+    public DistributedCache distributedCache(@Value("${application.cache.l2.maximum-size-per-region:100000}") long maximumSizePerRegion) {
+        return new InMemoryDistributedCache(maximumSizePerRegion);
+    }
+}
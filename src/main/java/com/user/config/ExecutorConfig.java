@@ -0,0 +1,148 @@
+package com.user.config;
+
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JCircuitBreakerFactory;
+import org.springframework.cloud.client.circuitbreaker.Customizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class ExecutorConfig {
+
+    private final boolean virtualThreads;
+
+    @Autowired
+    public ExecutorConfig(Environment environment) {
+        this.virtualThreads = Threading.VIRTUAL.isActive(environment);
+    }
+
+    /**
+     * Executor for BCrypt hashing, sized to the cores so a login burst cannot starve request threads.
+     * Work beyond the queue capacity is rejected instead of queued. Hashing is CPU bound, so it
+     * stays on platform threads even when virtual threads are enabled.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService passwordHashingExecutor(MeterRegistry meterRegistry,
+                                                   @Value("${application.security.password.hashing.queue-capacity:64}") int queueCapacity) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, "passwordHashing");
+    }
+
+    /**
+     * Executor for batch token verification, one thread per core since verification is CPU bound.
+     * When the queue is full the calling request thread verifies the slice itself.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService tokenVerificationExecutor(MeterRegistry meterRegistry,
+                                                     @Value("${application.security.jwt.batch.queue-capacity:256}") int queueCapacity) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("token-verification-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, "tokenVerification");
+    }
+
+    /**
+     * Executor for background refreshes of cached addresses. A refresh that does not fit
+     * in the queue is dropped and the stale entry is served until the next attempt.
+     */
+    @Bean
+    public Executor addressRefreshExecutor(MeterRegistry meterRegistry,
+                                           @Value("${application.address.refresh.threads:2}") int threads,
+                                           @Value("${application.address.refresh.queue-capacity:100}") int queueCapacity) {
+        return blockingIoExecutor(meterRegistry, "address-refresh-", "addressRefresh", threads, queueCapacity);
+    }
+
+    /**
+     * Executor for ADDRESS-SERVICE calls made on behalf of multi-user lookups, bounding how many
+     * calls a single batch request can have in flight.
+     */
+    @Bean
+    public Executor addressFanOutExecutor(MeterRegistry meterRegistry,
+                                          @Value("${application.address.fan-out.threads:16}") int threads,
+                                          @Value("${application.address.fan-out.queue-capacity:1000}") int queueCapacity) {
+        return blockingIoExecutor(meterRegistry, "address-fan-out-", "addressFanOut", threads, queueCapacity);
+    }
+
+    /**
+     * Executor for the address half of profile-with-addresses lookups, which run next to the
+     * profile lookup on the request thread.
+     */
+    @Bean
+    public Executor profileAggregationExecutor(MeterRegistry meterRegistry,
+                                               @Value("${application.profile.aggregation.threads:16}") int threads,
+                                               @Value("${application.profile.aggregation.queue-capacity:200}") int queueCapacity) {
+        return blockingIoExecutor(meterRegistry, "profile-aggregation-", "profileAggregation", threads, queueCapacity);
+    }
+
+    /**
+     * Executor the circuit breakers run their calls on, so the time limiter can give up waiting.
+     * Resilience4J would otherwise use an unbounded cached pool of its own which does not carry the
+     * trace context and reqId of the caller. A call beyond the queue capacity is rejected and answered
+     * by the fallback, the breakers ignore the rejection.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService circuitBreakerExecutor(MeterRegistry meterRegistry,
+                                                  @Value("${application.circuit-breaker.threads:64}") int threads,
+                                                  @Value("${application.circuit-breaker.queue-capacity:128}") int queueCapacity) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("circuit-breaker-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        return ContextExecutorService.wrap(ExecutorServiceMetrics.monitor(meterRegistry, executor, "circuitBreaker"));
+    }
+
+    @Bean
+    public Customizer<Resilience4JCircuitBreakerFactory> circuitBreakerExecutorCustomizer(
+            @Qualifier("circuitBreakerExecutor") ExecutorService circuitBreakerExecutor) {
+        return factory -> factory.configureExecutorService(circuitBreakerExecutor);
+    }
+
+    /**
+     * Executor for tasks that spend their time blocked on remote calls.
+     * <p>
+     * With spring.threads.virtual.enabled on Java 21 every task gets its own virtual thread and
+     * the thread count becomes a concurrency limit, tasks beyond it wait on their virtual thread.
+     * Either way work beyond the queue capacity is rejected, a submitter never blocks.
+     */
+    private Executor blockingIoExecutor(MeterRegistry meterRegistry, String threadNamePrefix, String name,
+                                        int threads, int queueCapacity) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+            executor.setVirtualThreads(true);
+            executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+            return ExecutorServiceMetrics.monitor(meterRegistry, new BoundedExecutor(executor, threads, queueCapacity), name);
+        }
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory(threadNamePrefix),
+                new ThreadPoolExecutor.AbortPolicy());
+        // Tasks run with the trace context and reqId of the request that submitted them
+        return ContextExecutorService.wrap(ExecutorServiceMetrics.monitor(meterRegistry, executor, name));
+    }
+}
@@ -3,6 +3,7 @@ package com.user.config;
 import com.user.exceptions.AuthenticationException;
 import com.user.exceptions.BusinessException;
 import com.user.exceptions.ResourceNotFoundException;
+import com.user.exceptions.ServiceUnavailableException;
 import com.user.exceptions.SystemException;
 import com.user.exceptions.UnexpectedErrorException;
 import com.user.exceptions.ValidationException;
@@ -21,6 +22,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
@@ -34,6 +36,7 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
     @ExceptionHandler(value = {
             ResourceNotFoundException.class,
+            ServiceUnavailableException.class,
             com.user.exceptions.AuthenticationException.class,
             java.security.SignatureException.class,
             UnexpectedErrorException.class,
@@ -47,6 +50,7 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
     public ResponseEntity<?> handleAllException(Exception e, WebRequest request) {
 
         logError(e);
+        markError(e, request);
 
         if (e instanceof ResourceNotFoundException) {
             return new ResponseEntity<>(
@@ -55,6 +59,13 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
                     ),
                     HttpStatus.OK
             );
+        } else if (e instanceof ServiceUnavailableException) {
+            return new ResponseEntity<>(
+                    new APIResponseEntity<>(
+                            Constants.STATUS_ERROR, e.getMessage(), ((ServiceUnavailableException) e).getCode(), getReqId(request)
+                    ),
+                    HttpStatus.SERVICE_UNAVAILABLE
+            );
         } else if (e instanceof java.security.SignatureException) {
             return new ResponseEntity<>(
                     new APIResponseEntity<>(
@@ -132,6 +143,7 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
                                                                   HttpStatusCode status,
                                                                   @NonNull WebRequest request) {
         logError(e);
+        markError(e, request);
 
         Map<String, String> errorMap = new HashMap<>();
         e.getBindingResult().getFieldErrors().forEach(error -> {
@@ -147,6 +159,9 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
     }
 
     private static String getReqId(WebRequest request) {
+        if (request.getAttribute(APIRequestInterceptor.REQ_ID_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof String reqId) {
+            return reqId;
+        }
         String reqId = request.getHeader(Constants.REQ_ID_KEY);
         if (StringUtils.isEmpty(reqId)) {
             reqId = MDC.get(Constants.REQ_ID_KEY);
@@ -154,6 +169,13 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return reqId;
     }
     
+    /**
+     * Errors are answered with HTTP 200, flag the request so the access log still records it as failed.
+     */
+    private static void markError(Exception e, WebRequest request) {
+        request.setAttribute(AccessLogFilter.ERROR_ATTRIBUTE, e.getClass().getSimpleName(), RequestAttributes.SCOPE_REQUEST);
+    }
+
     private static void logError(Exception e) {
         log.error("Exception Message: {}", e.getMessage());
         log.error("Exception Cause : {}", String.valueOf(e.getCause()));
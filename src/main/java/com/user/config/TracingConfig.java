@@ -0,0 +1,46 @@
+package com.user.config;
+
+import com.user.tracing.InMemorySpanExporter;
+import com.user.tracing.RequestIdPropagationInterceptor;
+import com.user.tracing.RequestIdThreadLocalAccessor;
+import feign.RequestInterceptor;
+import io.micrometer.context.ContextRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.aop.ObservedAspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Spans for HTTP requests, the security filter chain and Feign calls come from the Spring Boot
+ * observation support, JDBC spans from datasource-micrometer. This adds the service spans
+ * declared with {@link io.micrometer.observation.annotation.Observed} and the reqId propagation.
+ */
+@Configuration
+public class TracingConfig {
+
+    static {
+        ContextRegistry.getInstance().registerThreadLocalAccessor(new RequestIdThreadLocalAccessor());
+    }
+
+    @Bean
+    public ObservedAspect observedAspect(ObservationRegistry observationRegistry) {
+        return new ObservedAspect(observationRegistry);
+    }
+
+    @Bean
+    public RequestInterceptor requestIdPropagationInterceptor() {
+        return new RequestIdPropagationInterceptor();
+    }
+
+    /**
+     * Exporter keeping finished spans in memory, picked up by the OpenTelemetry auto-configuration.
+     * Spans are sent to an OTLP collector instead once management.otlp.tracing.endpoint is set.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "application.tracing.exporter", havingValue = "in-memory")
+    public InMemorySpanExporter inMemorySpanExporter(@Value("${application.tracing.in-memory.capacity:1000}") int capacity) {
+        return new InMemorySpanExporter(capacity);
+    }
+}
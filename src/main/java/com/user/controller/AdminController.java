@@ -0,0 +1,69 @@
+package com.user.controller;
+
+import com.user.models.response.APIResponseEntity;
+import com.user.token.TokenPurgeService;
+import com.user.utils.Constants;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@CrossOrigin
+@RequestMapping("/admin")
+@Slf4j
+public class AdminController {
+
+    private final TokenPurgeService tokenPurgeService;
+
+    @Autowired
+    public AdminController(final TokenPurgeService tokenPurgeService) {
+        this.tokenPurgeService = tokenPurgeService;
+    }
+
+    /**
+     * Purge expired tokens from the token ledger
+     *
+     * @return Number of purged tokens
+     */
+    @Operation(summary = "Purge expired tokens",
+            description = "This API is used to purge expired tokens from the token ledger on demand",
+            tags = {"Admin"},
+            method = "POST"
+    )
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "200", description = "OK"),
+                    @ApiResponse(responseCode = "403", description = "Access Denied - User is either invalid or is not entitled to requested api action", content = @Content(schema = @Schema(implementation = Error.class))),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error", content = @Content(schema = @Schema(implementation = Error.class)))
+            }
+    )
+    @PostMapping(
+            value = "/tokens/purge",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<APIResponseEntity<Integer>> purgeTokens() {
+
+        log.info("Purging expired tokens on demand");
+
+        int purged = tokenPurgeService.purge();
+
+        APIResponseEntity<Integer> response = new APIResponseEntity<>(
+                Constants.STATUS_SUCCESS,
+                Constants.SUCCESS_CODE,
+                purged
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+}
@@ -3,9 +3,14 @@ package com.user.controller;
 import com.user.exceptions.AuthenticationException;
 import com.user.exceptions.BusinessException;
 import com.user.exceptions.SystemException;
+import com.user.exceptions.ValidationException;
 import com.user.models.response.APIResponseEntity;
 import com.user.models.response.AuthenticationResponse;
+import com.user.models.response.TokenClaimsResponse;
+import com.user.models.response.TokenVerdictResponse;
+import com.user.security.BatchTokenVerifier;
 import com.user.security.JwtService;
+import com.user.security.ParsedToken;
 import com.user.utils.Constants;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -16,16 +21,21 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.servlet.ServletException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
 
 @RestController
 @CrossOrigin
@@ -35,9 +45,17 @@ public class AuthController {
 
     private final JwtService jwtService;
 
+    private final BatchTokenVerifier batchTokenVerifier;
+
+    private final int maxBatchSize;
+
     @Autowired
-    public AuthController(final JwtService jwtService) {
+    public AuthController(final JwtService jwtService,
+                          final BatchTokenVerifier batchTokenVerifier,
+                          @Value("${application.security.jwt.batch.max-size:1000}") int maxBatchSize) {
         this.jwtService = jwtService;
+        this.batchTokenVerifier = batchTokenVerifier;
+        this.maxBatchSize = maxBatchSize;
     }
 
     /**
@@ -70,11 +88,108 @@ public class AuthController {
             @Parameter(description = "JWT Token", required = true) @RequestParam(value = "token", required = true) String token
     ) throws AuthenticationException, BusinessException, SystemException, ServletException, IOException {
 
-        log.info("Validate Logged In User Token: {}", token);
+        log.debug("Validate Logged In User Token");
 
-        jwtService.validateToken(token);
+        jwtService.validateAndGetClaims(token);
 
         return new ResponseEntity<>(true, HttpStatus.OK);
     }
 
+    /**
+     * Validate Logged In User and return the token claims
+     *
+     * @param token Token
+     * @return Claims of the verified token
+     * @throws com.user.exceptions.BusinessException   BusinessException
+     * @throws com.user.exceptions.ValidationException ValidationException
+     * @throws com.user.exceptions.SystemException     SystemException
+     */
+    @Operation(summary = "Validate Logged In User and return Token Claims",
+            description = "This API is used to Validate Logged In User and return the claims of the token in one call",
+            tags = {"Checks"},
+            method = "GET"
+    )
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "200", description = "OK"),
+                    @ApiResponse(responseCode = "400", description = "Unexpected Error", content = @Content(schema = @Schema(implementation = Error.class))),
+                    @ApiResponse(responseCode = "403", description = "Access Denied - User is either invalid or is not entitled to requested api action", content = @Content(schema = @Schema(implementation = Error.class))),
+                    @ApiResponse(responseCode = "404", description = "Entity Not Found", content = @Content(schema = @Schema(implementation = Error.class))),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error", content = @Content(schema = @Schema(implementation = Error.class)))
+            }
+    )
+    @GetMapping(
+            value = "/validate-jwt/claims",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<APIResponseEntity<TokenClaimsResponse>> validateJwtAndGetClaims(
+            @Parameter(description = "JWT Token", required = true) @RequestParam(value = "token", required = true) String token
+    ) throws AuthenticationException, BusinessException, SystemException {
+
+        log.debug("Validate Logged In User Token and get Claims");
+
+        ParsedToken parsedToken = jwtService.validateAndGetClaims(token);
+
+        TokenClaimsResponse claims = TokenClaimsResponse.builder()
+                .subject(parsedToken.getSubject())
+                .issuedAt(parsedToken.getIssuedAt())
+                .expiration(parsedToken.getExpiration())
+                .claims(new HashMap<>(parsedToken.getClaims()))
+                .build();
+
+        APIResponseEntity<TokenClaimsResponse> response = new APIResponseEntity<>(
+                Constants.STATUS_SUCCESS,
+                Constants.SUCCESS_CODE,
+                claims
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    /**
+     * Validate many tokens in one call
+     *
+     * @param tokens JWT Tokens
+     * @return Verdict and subject for every token, in request order
+     * @throws com.user.exceptions.ValidationException ValidationException
+     */
+    @Operation(summary = "Validate many tokens",
+            description = "This API is used to Validate a batch of tokens, returning a verdict "
+                    + "(VALID, EXPIRED, REVOKED, BAD_SIGNATURE or MALFORMED) and the subject for each token",
+            tags = {"Checks"},
+            method = "POST"
+    )
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "200", description = "OK"),
+                    @ApiResponse(responseCode = "400", description = "Unexpected Error", content = @Content(schema = @Schema(implementation = Error.class))),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error", content = @Content(schema = @Schema(implementation = Error.class)))
+            }
+    )
+    @PostMapping(
+            value = "/validate-jwt/batch",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<APIResponseEntity<List<TokenVerdictResponse>>> validateJwtBatch(
+            @Parameter(description = "JWT Tokens", required = true) @RequestBody List<String> tokens
+    ) throws ValidationException {
+
+        if (tokens.isEmpty() || tokens.size() > maxBatchSize) {
+            throw new ValidationException("Between 1 and " + maxBatchSize + " tokens are required", Constants.ERR_INVALID_DATA);
+        }
+        log.debug("Validate batch of {} tokens", tokens.size());
+
+        List<TokenVerdictResponse> verdicts = batchTokenVerifier.verifyAll(tokens).stream()
+                .map(verification -> new TokenVerdictResponse(verification.getVerdict(), verification.getSubject()))
+                .toList();
+
+        APIResponseEntity<List<TokenVerdictResponse>> response = new APIResponseEntity<>(
+                Constants.STATUS_SUCCESS,
+                Constants.SUCCESS_CODE,
+                verdicts
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
 }
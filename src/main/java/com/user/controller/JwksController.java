@@ -0,0 +1,67 @@
+package com.user.controller;
+
+import com.user.security.JsonWebKeySet;
+import com.user.security.JwksProvider;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@CrossOrigin
+@Slf4j
+public class JwksController {
+
+    private final JwksProvider jwksProvider;
+
+    private final CacheControl cacheControl;
+
+    @Autowired
+    public JwksController(final JwksProvider jwksProvider,
+                          @Value("${application.security.jwt.jwks.max-age:300000}") long maxAge) {
+        this.jwksProvider = jwksProvider;
+        this.cacheControl = CacheControl.maxAge(maxAge, TimeUnit.MILLISECONDS).cachePublic();
+    }
+
+    /**
+     * Public keys for verifying tokens issued by this service. Spring answers 304 on its own
+     * when the If-None-Match header matches the ETag.
+     *
+     * @return JSON Web Key Set
+     */
+    @Operation(summary = "JSON Web Key Set",
+            description = "This API is used to get the public keys for verifying tokens locally. "
+                    + "Empty while tokens are signed with HS256",
+            tags = {"Checks"},
+            method = "GET"
+    )
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "200", description = "OK"),
+                    @ApiResponse(responseCode = "304", description = "Not Modified")
+            }
+    )
+    @GetMapping(
+            value = "/.well-known/jwks.json",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<byte[]> getJwks() {
+
+        JsonWebKeySet keySet = jwksProvider.getKeySet();
+
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .eTag(keySet.getEtag())
+                .body(keySet.getBody());
+    }
+}
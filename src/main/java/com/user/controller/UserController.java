@@ -3,9 +3,11 @@ package com.user.controller;
 import com.user.exceptions.AuthenticationException;
 import com.user.exceptions.BusinessException;
 import com.user.exceptions.SystemException;
+import com.user.models.request.RefreshTokenRequest;
 import com.user.models.request.SignInRequest;
 import com.user.models.response.APIResponseEntity;
 import com.user.models.response.AuthenticationResponse;
+import com.user.models.response.UserProfileResponse;
 import com.user.pojo.Address;
 import com.user.pojo.User;
 import com.user.security.LogoutService;
@@ -35,6 +37,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import javax.xml.bind.ValidationException;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @CrossOrigin
@@ -84,8 +87,6 @@ public class UserController {
             @Parameter(description = "Login Request", required = true) @RequestBody @Valid SignInRequest user
     ) throws AuthenticationException, BusinessException, SystemException {
 
-        log.info("Logging in User Request: {}", user);
-
         AuthenticationResponse auth = userService.userSignIn(user);
 
         APIResponseEntity<AuthenticationResponse> response = new APIResponseEntity<>(
@@ -97,6 +98,45 @@ public class UserController {
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
+    /**
+     * Exchange a Refresh Token for a new Access Token
+     *
+     * @param request Refresh Token Request Body
+     * @return Authorization Response with a new Access Token and the rotated Refresh Token
+     * @throws com.user.exceptions.BusinessException BusinessException
+     */
+    @Operation(summary = "Refresh Token",
+            description = "This API is used to rotate a Refresh Token without logging in again",
+            tags = {"Checks"},
+            method = "POST"
+    )
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "200", description = "OK"),
+                    @ApiResponse(responseCode = "400", description = "Unexpected Error", content = @Content(schema = @Schema(implementation = Error.class))),
+                    @ApiResponse(responseCode = "403", description = "Access Denied - User is either invalid or is not entitled to requested api action", content = @Content(schema = @Schema(implementation = Error.class))),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error", content = @Content(schema = @Schema(implementation = Error.class)))
+            }
+    )
+    @PostMapping(
+            value = "/refresh",
+            consumes = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<APIResponseEntity<AuthenticationResponse>> userRefresh(
+            @Parameter(description = "Refresh Token Request", required = true) @RequestBody RefreshTokenRequest request
+    ) throws BusinessException {
+
+        AuthenticationResponse auth = userService.userRefresh(request);
+
+        APIResponseEntity<AuthenticationResponse> response = new APIResponseEntity<>(
+                Constants.STATUS_SUCCESS,
+                Constants.SUCCESS_CODE,
+                auth
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
     /**
      * New User Signup
      *
@@ -128,7 +168,7 @@ public class UserController {
             @Parameter(description = "Signup Request", required = true) @RequestBody @Valid User user
     ) throws ValidationException, BusinessException, SystemException {
 
-        log.info("Signing up New User Request: {}", user);
+        log.debug("Signing up New User: {}", user);
 
         AuthenticationResponse authResponse = userService.userSignup(user);
 
@@ -171,7 +211,7 @@ public class UserController {
             @Parameter(description = "User Identifier", required = true) @PathVariable("id") int id
     ) throws BusinessException, Exception {
 
-        log.info("Getting User Profile for given User Id : " + id);
+        log.debug("Getting User Profile for given User Id : {}", id);
 
         User foundUser = userService.getProfile(id);
 
@@ -184,6 +224,50 @@ public class UserController {
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
+    /**
+     * Get User Profile for given user together with the User Addresses
+     *
+     * @param id User IDENTIFIER
+     * @return User Details with Addresses for given User Id
+     * @throws BusinessException BusinessException
+     * @throws SystemException   SystemException
+     */
+    @Operation(summary = "Get User Profile with Addresses for given user",
+            description = "This API is used to Get User Profile and Addresses for given user Id in one call. "
+                    + "If the addresses are not available in time the profile is returned without them and degraded is set",
+            tags = {"Checks"},
+            method = "GET"
+    )
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "200", description = "OK"),
+                    @ApiResponse(responseCode = "400", description = "Unexpected Error", content = @Content(schema = @Schema(implementation = Error.class))),
+                    @ApiResponse(responseCode = "403", description = "Access Denied - User is either invalid or is not entitled to requested api action", content = @Content(schema = @Schema(implementation = Error.class))),
+                    @ApiResponse(responseCode = "404", description = "Entity Not Found", content = @Content(schema = @Schema(implementation = Error.class))),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error", content = @Content(schema = @Schema(implementation = Error.class)))
+            }
+    )
+    @GetMapping(
+            value = "/profile/{id}/with-addresses",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<APIResponseEntity<UserProfileResponse>> getUserProfileWithAddresses(
+            @Parameter(description = "User Identifier", required = true) @PathVariable("id") int id
+    ) throws BusinessException, Exception {
+
+        log.debug("Getting User Profile with Addresses for given User Id : {}", id);
+
+        UserProfileResponse profile = userService.getProfileWithAddresses(id);
+
+        APIResponseEntity<UserProfileResponse> response = new APIResponseEntity<>(
+                Constants.STATUS_SUCCESS,
+                Constants.SUCCESS_CODE,
+                profile
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
     /**
      * Get all the addresses for given user
      *
@@ -214,7 +298,7 @@ public class UserController {
             @Parameter(description = "User Identifier", required = true) @PathVariable("userId") Integer userId
     ) throws Exception {
 
-        log.info("Getting all addresses for given User Id: {}", userId);
+        log.debug("Getting all addresses for given User Id: {}", userId);
 
         List<Address> allAddresses = userService.getAddress(userId);
 
@@ -227,4 +311,47 @@ public class UserController {
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
+    /**
+     * Get the addresses for many users at once
+     *
+     * @param userIds User IDENTIFIERS
+     * @return Addresses by User Id
+     * @throws BusinessException BusinessException
+     * @throws SystemException   SystemException
+     */
+    @Operation(summary = "Get the addresses for many users",
+            description = "This API is used to get the addresses of every User in the given list of userIds. Requires the ADMIN authority",
+            tags = {"Checks"},
+            method = "POST"
+    )
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "200", description = "OK"),
+                    @ApiResponse(responseCode = "400", description = "Unexpected Error", content = @Content(schema = @Schema(implementation = Error.class))),
+                    @ApiResponse(responseCode = "403", description = "Access Denied - User is either invalid or is not entitled to requested api action", content = @Content(schema = @Schema(implementation = Error.class))),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error", content = @Content(schema = @Schema(implementation = Error.class))),
+                    @ApiResponse(responseCode = "503", description = "Address Service Unavailable", content = @Content(schema = @Schema(implementation = Error.class)))
+            }
+    )
+    @PostMapping(
+            value = "/address/batch",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<APIResponseEntity<Map<Integer, List<Address>>>> getAddressesForUsers(
+            @Parameter(description = "User Identifiers", required = true) @RequestBody List<Integer> userIds
+    ) throws Exception {
+
+        log.debug("Getting addresses for {} users", userIds.size());
+
+        Map<Integer, List<Address>> addresses = userService.getAddresses(userIds);
+
+        APIResponseEntity<Map<Integer, List<Address>>> response =
+                new APIResponseEntity<>(
+                        Constants.STATUS_SUCCESS,
+                        Constants.SUCCESS_CODE,
+                        addresses);
+
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
 }
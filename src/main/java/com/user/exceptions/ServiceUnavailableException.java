@@ -0,0 +1,25 @@
+package com.user.exceptions;
+
+import lombok.Getter;
+import lombok.Setter;
+
+public class ServiceUnavailableException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    @Getter
+    @Setter
+    private String code;
+    @Setter
+    private String message;
+
+    public ServiceUnavailableException(String message, String code) {
+        super(message);
+        this.message = message;
+        this.code = code;
+    }
+
+    @Override
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,32 @@
+package com.user.models.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TokenClaimsResponse {
+
+    @JsonProperty("subject")
+    private String subject;
+
+    @JsonFormat(pattern = "dd-MM-yyyy HH:mm:ss")
+    @JsonProperty("issuedAt")
+    private Date issuedAt;
+
+    @JsonFormat(pattern = "dd-MM-yyyy HH:mm:ss")
+    @JsonProperty("expiration")
+    private Date expiration;
+
+    @JsonProperty("claims")
+    private Map<String, Object> claims;
+}
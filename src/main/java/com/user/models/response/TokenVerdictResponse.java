@@ -0,0 +1,23 @@
+package com.user.models.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.user.security.TokenVerdict;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TokenVerdictResponse {
+
+    @JsonProperty("verdict")
+    private TokenVerdict verdict;
+
+    @JsonProperty("subject")
+    private String subject;
+}
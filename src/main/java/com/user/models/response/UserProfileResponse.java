@@ -0,0 +1,24 @@
+package com.user.models.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.user.pojo.User;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserProfileResponse {
+
+    @JsonProperty("user")
+    private User user;
+
+    /**
+     * True when the addresses could not be loaded within the deadline and are missing from the user.
+     */
+    @JsonProperty("degraded")
+    private boolean degraded;
+}
@@ -33,6 +33,7 @@ public class Credentials {
     private String email;
 
     @JsonProperty(value = "password")
+    @ToString.Exclude
     @Column(name = "password")
     @NotNull(message = "Password can not be Null")
     private String password;
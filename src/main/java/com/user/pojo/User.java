@@ -39,7 +39,7 @@ import java.util.List;
 @Setter
 @Entity
 @Table(name = "user")
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @JsonIgnoreProperties(value = {"password"}, allowSetters = true)  //it will not send password to client side
@@ -99,7 +99,7 @@ public class User implements UserDetails {
                 ", name='" + name + '\'' +
                 ", phone='" + phone + '\'' +
                 ", email='" + email + '\'' +
-                ", password='" + password + '\'' +
+                ", password='[PROTECTED]'" +
                 ", status=" + status +
                 ", role=" + role +
                 ", date=" + date +
@@ -0,0 +1,27 @@
+package com.user.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.security.Principal;
+
+/**
+ * Principal of a request authenticated by a bearer token, built only from the token claims.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class AuthenticatedUser implements Principal {
+
+    private final Integer userId;
+
+    private final String email;
+
+    private final String role;
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
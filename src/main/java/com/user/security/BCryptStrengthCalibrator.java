@@ -0,0 +1,42 @@
+package com.user.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Picks the BCrypt work factor whose hashing time on this host reaches the target latency.
+ */
+@Slf4j
+public final class BCryptStrengthCalibrator {
+
+    static final int MIN_STRENGTH = 10;
+
+    static final int MAX_STRENGTH = 14;
+
+    private BCryptStrengthCalibrator() {
+    }
+
+    /**
+     * @param targetLatency Target hashing time in ms
+     * @return The lowest strength between {@value MIN_STRENGTH} and {@value MAX_STRENGTH} taking at least the target latency
+     */
+    public static int calibrate(long targetLatency) {
+        // Warm up so the first measurement is not dominated by class loading and JIT
+        new BCryptPasswordEncoder(4).encode("calibration");
+
+        int strength = MIN_STRENGTH;
+        while (strength < MAX_STRENGTH) {
+            BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+            long start = System.nanoTime();
+            encoder.encode("calibration");
+            long elapsed = (System.nanoTime() - start) / 1_000_000;
+            log.debug("BCrypt strength {} took {} (ms)", strength, elapsed);
+            if (elapsed >= targetLatency) {
+                break;
+            }
+            strength++;
+        }
+        log.info("Calibrated BCrypt strength {} for target latency {} (ms)", strength, targetLatency);
+        return strength;
+    }
+}
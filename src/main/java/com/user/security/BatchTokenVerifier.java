@@ -0,0 +1,64 @@
+package com.user.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Verifies many tokens at once with {@link JwtService#verify(String)}.
+ * <p>
+ * The tokens are split into one contiguous slice per core, each slice is verified on the token
+ * verification executor and the calling thread verifies the first slice itself.
+ * Small batches are verified on the calling thread only.
+ */
+@Component
+public class BatchTokenVerifier {
+
+    private static final int MIN_SLICE_SIZE = 8;
+
+    private final JwtService jwtService;
+
+    private final Executor executor;
+
+    private final int parallelism = Runtime.getRuntime().availableProcessors();
+
+    @Autowired
+    public BatchTokenVerifier(final JwtService jwtService,
+                              @Qualifier("tokenVerificationExecutor") final Executor executor) {
+        this.jwtService = jwtService;
+        this.executor = executor;
+    }
+
+    /**
+     * @param tokens JWT Tokens
+     * @return One verification per token, in the same order
+     */
+    public List<TokenVerification> verifyAll(List<String> tokens) {
+        final int size = tokens.size();
+        final TokenVerification[] results = new TokenVerification[size];
+        final int slices = Math.max(1, Math.min(parallelism, size / MIN_SLICE_SIZE));
+        final int sliceSize = (size + slices - 1) / slices;
+
+        List<CompletableFuture<Void>> pending = new ArrayList<>(slices - 1);
+        for (int from = sliceSize; from < size; from += sliceSize) {
+            final int start = from;
+            final int end = Math.min(size, from + sliceSize);
+            pending.add(CompletableFuture.runAsync(() -> verifySlice(tokens, results, start, end), executor));
+        }
+        verifySlice(tokens, results, 0, Math.min(size, sliceSize));
+        pending.forEach(CompletableFuture::join);
+        return Arrays.asList(results);
+    }
+
+    private void verifySlice(List<String> tokens, TokenVerification[] results, int from, int to) {
+        for (int i = from; i < to; i++) {
+            results[i] = jwtService.verify(tokens.get(i));
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.user.security;
+
+import com.user.exceptions.ServiceUnavailableException;
+import com.user.utils.Constants;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs the CPU bound hashing of the delegate encoder on a bounded executor.
+ * <p>
+ * A burst of logins can then only keep as many cores busy as the executor has threads.
+ * When its queue is full, or a hash does not finish within the timeout, the request fails
+ * fast with a {@link ServiceUnavailableException} instead of pinning a request thread.
+ * The hashing itself is timed as "security.password.hash", time spent queued is not included.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+
+    private final ExecutorService executor;
+
+    private final long timeout;
+
+    private final Timer encodeTimer;
+
+    private final Timer matchesTimer;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, ExecutorService executor, long timeout,
+                                  MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.timeout = timeout;
+        this.encodeTimer = Timer.builder("security.password.hash")
+                .description("Time to hash or check a password")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("security.password.hash")
+                .description("Time to hash or check a password")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> encodeTimer.recordCallable(() -> delegate.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> matchesTimer.recordCallable(() -> delegate.matches(rawPassword, encodedPassword)));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw busy();
+        }
+        try {
+            return future.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw busy();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw busy();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static ServiceUnavailableException busy() {
+        return new ServiceUnavailableException("Server is busy, please retry", Constants.ERR_SERVICE_UNAVAILABLE);
+    }
+}
@@ -0,0 +1,53 @@
+package com.user.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Short lived, size bounded read-through cache of the users loaded for login.
+ * <p>
+ * A wrong password is checked once against the cached hash and rejected, it does not evict and
+ * reload the user. Entries are evicted on password changes, and only live for the TTL otherwise.
+ * Hit rates are published under the "cache.*" meters with the tag cache=userDetails.
+ */
+@Component
+public class CaffeineUserCache {
+
+    static final String CACHE_NAME = "userDetails";
+
+    private final Cache<String, UserDetails> cache;
+
+    @Autowired
+    public CaffeineUserCache(@Value("${application.security.user-cache.maximum-size:10000}") long maximumSize,
+                             @Value("${application.security.user-cache.ttl:60000}") long ttl,
+                             MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(ttl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * @param username Username
+     * @param loader   Called on a miss, a null result is not cached
+     * @return Cached or loaded user, null if unknown
+     */
+    public UserDetails get(String username, Function<String, UserDetails> loader) {
+        return cache.get(username, loader);
+    }
+
+    public void invalidate(String username) {
+        cache.invalidate(username);
+    }
+}
@@ -0,0 +1,20 @@
+package com.user.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Date;
+
+/**
+ * A freshly signed token together with the id and expiry that were written into it.
+ */
+@Getter
+@AllArgsConstructor
+public class IssuedToken {
+
+    private final String token;
+
+    private final String jti;
+
+    private final Date expiresAt;
+}
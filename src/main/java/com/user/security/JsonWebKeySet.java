@@ -0,0 +1,16 @@
+package com.user.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Serialized JWKS document with its entity tag.
+ */
+@Getter
+@AllArgsConstructor
+public class JsonWebKeySet {
+
+    private final byte[] body;
+
+    private final String etag;
+}
@@ -0,0 +1,114 @@
+package com.user.security;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.user.utils.EncryptPassword;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Encoders;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes the public signing keys as a JSON Web Key Set (RFC 7517) so other services can
+ * verify tokens without calling us.
+ * <p>
+ * The document is serialized once per key snapshot and rebuilt only after a key rotation.
+ */
+@Component
+public class JwksProvider {
+
+    private final JwtService jwtService;
+
+    private final ObjectMapper objectMapper;
+
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public JwksProvider(final JwtService jwtService,
+                        final ObjectMapper objectMapper) {
+        this.jwtService = jwtService;
+        this.objectMapper = objectMapper;
+    }
+
+    public JsonWebKeySet getKeySet() {
+        final JwtSigningKeys keys = jwtService.getSigningKeys();
+        Snapshot current = snapshot;
+        if (current == null || current.keys != keys) {
+            current = new Snapshot(keys, build(keys));
+            snapshot = current;
+        }
+        return current.keySet;
+    }
+
+    private JsonWebKeySet build(JwtSigningKeys keys) {
+        List<Map<String, String>> jwks = new ArrayList<>();
+        keys.getPublicKeys().forEach((keyId, publicKey) -> jwks.add(toJwk(keyId, keys.getAlgorithm(keyId), publicKey)));
+        try {
+            String json = objectMapper.writeValueAsString(Map.of("keys", jwks));
+            return new JsonWebKeySet(json.getBytes(StandardCharsets.UTF_8), "\"" + EncryptPassword.getSHA256Hash(json) + "\"");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize JWKS", e);
+        }
+    }
+
+    private static Map<String, String> toJwk(String keyId, SignatureAlgorithm algorithm, PublicKey publicKey) {
+        Map<String, String> jwk = new LinkedHashMap<>();
+        if (publicKey instanceof RSAPublicKey rsaKey) {
+            jwk.put("kty", "RSA");
+            jwk.put("n", base64Url(rsaKey.getModulus(), 0));
+            jwk.put("e", base64Url(rsaKey.getPublicExponent(), 0));
+        } else if (publicKey instanceof ECPublicKey ecKey) {
+            int fieldSize = ecKey.getParams().getCurve().getField().getFieldSize();
+            int length = (fieldSize + 7) / 8;
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-" + fieldSize);
+            jwk.put("x", base64Url(ecKey.getW().getAffineX(), length));
+            jwk.put("y", base64Url(ecKey.getW().getAffineY(), length));
+        } else {
+            throw new IllegalArgumentException("Unsupported public key type: " + publicKey.getAlgorithm());
+        }
+        jwk.put("kid", keyId);
+        jwk.put("use", "sig");
+        jwk.put("alg", algorithm.getValue());
+        return jwk;
+    }
+
+    /**
+     * Unsigned big-endian encoding, left padded with zeros to the length if given.
+     */
+    private static String base64Url(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        if (bytes.length < length) {
+            byte[] padded = new byte[length];
+            System.arraycopy(bytes, 0, padded, length - bytes.length, bytes.length);
+            bytes = padded;
+        }
+        return Encoders.BASE64URL.encode(bytes);
+    }
+
+    private static final class Snapshot {
+
+        private final JwtSigningKeys keys;
+
+        private final JsonWebKeySet keySet;
+
+        Snapshot(JwtSigningKeys keys, JsonWebKeySet keySet) {
+            this.keys = keys;
+            this.keySet = keySet;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.user.security;
+
+import com.user.utils.Constants;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Authenticates requests carrying a bearer token.
+ * <p>
+ * The {@link org.springframework.security.core.Authentication} is built from the verified token
+ * claims alone, so authenticated requests never load the user from the database.
+ * Verification failures are handed to the {@link HandlerExceptionResolver} so they are rendered
+ * by the {@link com.user.config.GlobalExceptionHandler} like any other error.
+ */
+@Slf4j
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private final JwtService jwtService;
+
+    private final HandlerExceptionResolver exceptionResolver;
+
+    public JwtAuthenticationFilter(final JwtService jwtService,
+                                   final HandlerExceptionResolver exceptionResolver) {
+        this.jwtService = jwtService;
+        this.exceptionResolver = exceptionResolver;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        final String authHeader = request.getHeader(Constants.TOKEN_HEADER);
+        if (authHeader == null || !authHeader.startsWith(Constants.TOKEN_PREFIX)
+                || SecurityContextHolder.getContext().getAuthentication() != null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        try {
+            ParsedToken parsedToken = jwtService.validateAndGetClaims(authHeader.substring(Constants.TOKEN_PREFIX.length()));
+
+            String role = parsedToken.getClaim(JwtService.CLAIM_ROLE, String.class);
+            List<GrantedAuthority> authorities = role == null ? List.of() : List.of(new SimpleGrantedAuthority(role));
+            AuthenticatedUser principal = new AuthenticatedUser(
+                    parsedToken.getClaim(JwtService.CLAIM_USER_ID, Integer.class),
+                    parsedToken.getSubject(),
+                    role
+            );
+
+            UsernamePasswordAuthenticationToken authentication =
+                    UsernamePasswordAuthenticationToken.authenticated(principal, null, authorities);
+            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+            SecurityContext context = SecurityContextHolder.createEmptyContext();
+            context.setAuthentication(authentication);
+            SecurityContextHolder.setContext(context);
+        } catch (Exception e) {
+            log.info("Bearer token rejected: {}", e.getMessage());
+            exceptionResolver.resolveException(request, response, null, e);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
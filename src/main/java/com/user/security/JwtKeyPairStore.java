@@ -0,0 +1,56 @@
+package com.user.security;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.cert.Certificate;
+
+/**
+ * Loads the key pair for RS* and ES* token signing from a PKCS12 key store.
+ */
+@Slf4j
+final class JwtKeyPairStore {
+
+    private JwtKeyPairStore() {
+    }
+
+    /**
+     * @param location  Spring resource location of the PKCS12 key store, e.g. file:/etc/user-service/jwt.p12.
+     *                  When blank an ephemeral key pair is generated, only suitable for a single instance.
+     * @param password  Key store and key password
+     * @param alias     Alias of the key entry
+     * @param algorithm Signing algorithm the key pair is used with
+     * @return Key pair
+     */
+    static KeyPair load(String location, String password, String alias, SignatureAlgorithm algorithm) {
+        if (StringUtils.isBlank(location)) {
+            log.warn("No JWT key store configured, generated an ephemeral {} key pair. "
+                    + "Tokens will not verify on other instances or after a restart", algorithm);
+            return Keys.keyPairFor(algorithm);
+        }
+        char[] secret = password == null ? new char[0] : password.toCharArray();
+        Resource resource = new DefaultResourceLoader().getResource(location);
+        try (InputStream inputStream = resource.getInputStream()) {
+            KeyStore keyStore = KeyStore.getInstance("PKCS12");
+            keyStore.load(inputStream, secret);
+            PrivateKey privateKey = (PrivateKey) keyStore.getKey(alias, secret);
+            Certificate certificate = keyStore.getCertificate(alias);
+            if (privateKey == null || certificate == null) {
+                throw new IllegalStateException("No key pair with alias " + alias + " in " + location);
+            }
+            return new KeyPair(certificate.getPublicKey(), privateKey);
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("Could not load JWT key store " + location, e);
+        }
+    }
+}
@@ -1,90 +1,365 @@
 package com.user.security;
 
 import io.jsonwebtoken.Claims;
+import com.user.exceptions.AuthenticationException;
+import com.user.pojo.User;
+import com.user.token.TokenIds;
+import com.user.utils.Constants;
+import com.user.utils.EncryptPassword;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
+import java.security.KeyPair;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
 
+@Slf4j
 @Component
 public class JwtService {
 
+    public static final String CLAIM_USER_ID = "userId";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_TOKEN_TYPE = "typ";
+    public static final String CLAIM_FAMILY = "fam";
+    public static final String CLAIM_ISSUED_AT_MILLIS = "iat_ms";
+    public static final String REFRESH_TOKEN_TYPE = "refresh";
 
+    @Value("${application.security.jwt.algorithm:HS256}")
+    private String algorithm;
     @Value("${application.security.jwt.secret-key}")
     private String secretKey;
+    @Value("${application.security.jwt.key-id:default}")
+    private String keyId;
+    @Value("${application.security.jwt.previous-secret-key:}")
+    private String previousSecretKey;
+    @Value("${application.security.jwt.previous-key-id:}")
+    private String previousKeyId;
+    @Value("${application.security.jwt.key-store.location:}")
+    private String keyStoreLocation;
+    @Value("${application.security.jwt.key-store.password:}")
+    private String keyStorePassword;
+    @Value("${application.security.jwt.key-store.alias:jwt}")
+    private String keyStoreAlias;
     @Value("${application.security.jwt.expiration}")
     private long jwtExpiration;
     @Value("${application.security.jwt.refresh-token.expiration}")
     private long refreshExpiration;
 
+    /**
+     * Keys are decoded once and swapped atomically on rotation, the parser reads
+     * the latest snapshot through the key resolver so it never needs to be rebuilt.
+     */
+    private volatile JwtSigningKeys signingKeys;
+
+    private JwtParser jwtParser;
+
+    private final ReentrantLock rotationLock = new ReentrantLock();
+
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    private final TokenRevocationIndex tokenRevocationIndex;
+
+    private final Timer signTimer;
+
+    private final Timer verifyTimer;
+
+    @Autowired
+    public JwtService(final VerifiedTokenCache verifiedTokenCache,
+                      final TokenRevocationIndex tokenRevocationIndex,
+                      final MeterRegistry meterRegistry) {
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.tokenRevocationIndex = tokenRevocationIndex;
+        // Verification served by the VerifiedTokenCache is not timed, only actual signature checks
+        this.signTimer = Timer.builder("security.jwt")
+                .description("Time to sign or verify a JWT")
+                .tag("operation", "sign")
+                .register(meterRegistry);
+        this.verifyTimer = Timer.builder("security.jwt")
+                .description("Time to sign or verify a JWT")
+                .tag("operation", "verify")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void init() {
+        final SignatureAlgorithm signatureAlgorithm = SignatureAlgorithm.forName(StringUtils.defaultIfBlank(algorithm, "HS256"));
+        final boolean hasPreviousKey = StringUtils.isNotBlank(previousSecretKey) && StringUtils.isNotBlank(previousKeyId);
+        if (signatureAlgorithm == SignatureAlgorithm.HS256) {
+            signingKeys = hasPreviousKey
+                    ? JwtSigningKeys.of(previousKeyId, previousSecretKey).rotate(keyId, secretKey)
+                    : JwtSigningKeys.of(keyId, secretKey);
+        } else {
+            // The previous key is the HS256 secret while migrating to asymmetric signing
+            KeyPair keyPair = JwtKeyPairStore.load(keyStoreLocation, keyStorePassword, keyStoreAlias, signatureAlgorithm);
+            signingKeys = hasPreviousKey
+                    ? JwtSigningKeys.of(previousKeyId, previousSecretKey).rotate(keyId, keyPair, signatureAlgorithm)
+                    : JwtSigningKeys.of(keyId, keyPair, signatureAlgorithm);
+        }
+        log.info("Signing JWTs with {} key id: {}", signingKeys.getCurrentAlgorithm(), signingKeys.getCurrentKeyId());
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return signingKeys.resolve(header.getKeyId(), header.getAlgorithm());
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Start signing new tokens with the given key. Tokens signed with the key
+     * that was current until now are still accepted until they expire.
+     *
+     * @param newKeyId  Identifier written to the "kid" header of new tokens
+     * @param newSecret Base64 encoded HMAC secret, the new key signs with HS256
+     */
+    public void rotateSigningKey(String newKeyId, String newSecret) {
+        rotationLock.lock();
+        try {
+            signingKeys = signingKeys.rotate(newKeyId, newSecret);
+        } finally {
+            rotationLock.unlock();
+        }
+        log.info("Rotated JWT signing key to kid: {}", newKeyId);
+    }
+
+    /**
+     * Same as {@link #rotateSigningKey(String, String)} for an RSA or EC key pair.
+     *
+     * @param newKeyId  Identifier written to the "kid" header of new tokens
+     * @param keyPair   Key pair, the public key is published in the JWKS
+     * @param algorithm RS* or ES* algorithm matching the key pair
+     */
+    public void rotateSigningKey(String newKeyId, KeyPair keyPair, SignatureAlgorithm algorithm) {
+        rotationLock.lock();
+        try {
+            signingKeys = signingKeys.rotate(newKeyId, keyPair, algorithm);
+        } finally {
+            rotationLock.unlock();
+        }
+        log.info("Rotated JWT signing key to {} kid: {}", algorithm, newKeyId);
+    }
+
+    JwtSigningKeys getSigningKeys() {
+        return signingKeys;
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+        return parseToken(token).getClaim(claimsResolver);
     }
 
     public void validateToken(final String token) {
-        Jwts.parserBuilder().setSigningKey(getSignInKey()).build().parseClaimsJws(token);
+        parseToken(token);
+    }
+
+    /**
+     * Verify the token signature and expiry once and return every claim from that single pass.
+     * Tokens verified recently are served from the {@link VerifiedTokenCache}, revoked tokens are
+     * rejected through the {@link TokenRevocationIndex} without a database lookup.
+     *
+     * @param token JWT Token
+     * @return Parsed Token
+     * @throws AuthenticationException if the token has been revoked or is a refresh token
+     */
+    public ParsedToken validateAndGetClaims(final String token) throws AuthenticationException {
+        final ParsedToken parsedToken = verifySignature(token);
+        if (isRefreshToken(parsedToken)) {
+            throw new AuthenticationException("Refresh token can not be used as an access token", Constants.ERR_AUTHENTICATION);
+        }
+        if (tokenRevocationIndex.isRevoked(parsedToken)) {
+            throw new AuthenticationException("Token has been revoked", Constants.ERR_AUTHENTICATION);
+        }
+        return parsedToken;
     }
 
+    /**
+     * Same checks as {@link #validateAndGetClaims(String)}, reporting the outcome instead of throwing.
+     *
+     * @param token JWT Token
+     * @return Verdict and subject of the token
+     */
+    public TokenVerification verify(final String token) {
+        if (StringUtils.isBlank(token)) {
+            return new TokenVerification(TokenVerdict.MALFORMED, null);
+        }
+        final ParsedToken parsedToken;
+        try {
+            parsedToken = verifySignature(token);
+        } catch (ExpiredJwtException e) {
+            return new TokenVerification(TokenVerdict.EXPIRED, e.getClaims().getSubject());
+        } catch (SignatureException e) {
+            return new TokenVerification(TokenVerdict.BAD_SIGNATURE, null);
+        } catch (JwtException | IllegalArgumentException e) {
+            return new TokenVerification(TokenVerdict.MALFORMED, null);
+        }
+        if (isRefreshToken(parsedToken)) {
+            return new TokenVerification(TokenVerdict.MALFORMED, parsedToken.getSubject());
+        }
+        if (tokenRevocationIndex.isRevoked(parsedToken)) {
+            return new TokenVerification(TokenVerdict.REVOKED, parsedToken.getSubject());
+        }
+        return new TokenVerification(TokenVerdict.VALID, parsedToken.getSubject());
+    }
+
+    /**
+     * Verify the signature and expiry of a refresh token. Refresh tokens are presented once,
+     * so they bypass the {@link VerifiedTokenCache}. Revocation is left to the caller, a revoked
+     * refresh token is evidence of reuse rather than a plain rejection.
+     *
+     * @param token Refresh Token
+     * @return Parsed Token
+     * @throws AuthenticationException if the token is not a refresh token
+     */
+    public ParsedToken validateRefreshToken(final String token) throws AuthenticationException {
+        final ParsedToken parsedToken = parseToken(token);
+        if (!isRefreshToken(parsedToken) || parsedToken.getClaim(CLAIM_FAMILY, String.class) == null) {
+            throw new AuthenticationException("Not a refresh token", Constants.ERR_AUTHENTICATION);
+        }
+        return parsedToken;
+    }
+
+    /**
+     * Revoke a token so it is rejected by {@link #validateAndGetClaims(String)} until it expires.
+     *
+     * @param token JWT Token
+     * @return The revoked token, empty if it was already expired or not signed by us
+     */
+    public Optional<ParsedToken> revokeToken(final String token) {
+        verifiedTokenCache.invalidate(EncryptPassword.getSHA256Hash(token));
+        try {
+            ParsedToken parsedToken = parseToken(token);
+            if (parsedToken.getJti() != null) {
+                tokenRevocationIndex.revoke(parsedToken.getJti(), parsedToken.getExpiration().getTime());
+            }
+            return Optional.of(parsedToken);
+        } catch (JwtException e) {
+            // Expired or foreign tokens already fail signature verification
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Generate an access token. For a {@link User} the user id and role are embedded so
+     * requests can be authenticated from the token alone.
+     *
+     * @param userDetails User Details
+     * @return Signed JWT Token
+     */
     public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails);
+        return issueToken(userDetails).getToken();
+    }
+
+    /**
+     * Same as {@link #generateToken(UserDetails)}, also returning the token id and expiry for the token ledger.
+     *
+     * @param userDetails User Details
+     * @return Issued Token
+     */
+    public IssuedToken issueToken(UserDetails userDetails) {
+        return buildToken(userClaims(userDetails), userDetails, jwtExpiration);
     }
 
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
-        return buildToken(extraClaims, userDetails, jwtExpiration);
+        return buildToken(extraClaims, userDetails, jwtExpiration).getToken();
     }
 
     public String generateRefreshToken(UserDetails userDetails) {
-        return buildToken(new HashMap<>(), userDetails, refreshExpiration);
+        return issueRefreshToken(userDetails, TokenIds.newId()).getToken();
     }
 
-    private String buildToken(Map<String, Object> extraClaims,
-                              UserDetails userDetails, long expiration) {
-        return Jwts.builder()
-                .setClaims(extraClaims)
-                .setSubject(userDetails.getUsername())
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
-                .compact();
+    /**
+     * Generate a refresh token. It carries the user id and role, so a new access token
+     * can be minted from it without loading the user, and the id of its token family.
+     * Every token rotated from the same login shares the family id.
+     *
+     * @param userDetails User Details
+     * @param family      Token family id
+     * @return Issued Token
+     */
+    public IssuedToken issueRefreshToken(UserDetails userDetails, String family) {
+        Map<String, Object> claims = userClaims(userDetails);
+        claims.put(CLAIM_TOKEN_TYPE, REFRESH_TOKEN_TYPE);
+        claims.put(CLAIM_FAMILY, family);
+        return buildToken(claims, userDetails, refreshExpiration);
     }
 
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+    private Map<String, Object> userClaims(UserDetails userDetails) {
+        Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof User user) {
+            claims.put(CLAIM_USER_ID, user.getUserId());
+            if (user.getRole() != null) {
+                claims.put(CLAIM_ROLE, user.getRole().name());
+            }
+        }
+        return claims;
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private boolean isRefreshToken(ParsedToken parsedToken) {
+        return REFRESH_TOKEN_TYPE.equals(parsedToken.getClaim(CLAIM_TOKEN_TYPE, String.class));
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private IssuedToken buildToken(Map<String, Object> extraClaims,
+                                   UserDetails userDetails, long expiration) {
+        final JwtSigningKeys keys = signingKeys;
+        final String jti = TokenIds.newId();
+        final long now = System.currentTimeMillis();
+        final Date expiresAt = new Date(now + expiration);
+        final Timer.Sample sample = Timer.start();
+        String token = Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, keys.getCurrentKeyId())
+                .setClaims(extraClaims)
+                .setId(jti)
+                .setSubject(userDetails.getUsername())
+                .setIssuedAt(new Date(now))
+                .claim(CLAIM_ISSUED_AT_MILLIS, now)
+                .setExpiration(expiresAt)
+                .signWith(keys.getCurrentKey(), keys.getCurrentAlgorithm())
+                .compact();
+        sample.stop(signTimer);
+        return new IssuedToken(token, jti, expiresAt);
+    }
+
+    public boolean isTokenValid(String token, UserDetails userDetails) {
+        final ParsedToken parsedToken = parseToken(token);
+        return (parsedToken.getSubject().equals(userDetails.getUsername())) && !parsedToken.isExpired();
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private ParsedToken verifySignature(String token) {
+        return verifiedTokenCache.get(EncryptPassword.getSHA256Hash(token), () -> parseToken(token));
     }
 
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private ParsedToken parseToken(String token) {
+        final Timer.Sample sample = Timer.start();
+        try {
+            return new ParsedToken(jwtParser
+                    .parseClaimsJws(token)
+                    .getBody());
+        } finally {
+            sample.stop(verifyTimer);
+        }
     }
-}
\ No newline at end of file
+}
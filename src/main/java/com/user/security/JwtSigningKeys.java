@@ -0,0 +1,165 @@
+package com.user.security;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.apache.commons.lang3.StringUtils;
+
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the keys used to sign and verify JWTs.
+ * <p>
+ * The current key signs every new token. The previous key, if configured, is only
+ * accepted for verification so tokens issued before a rotation stay valid until they expire.
+ * Every key id is bound to one algorithm, a token is only verified with its key if the
+ * "alg" header matches, so an HMAC token can never be checked against a public key.
+ */
+final class JwtSigningKeys {
+
+    private final SigningKey current;
+
+    private final Map<String, SigningKey> verificationKeys;
+
+    private JwtSigningKeys(SigningKey current, Map<String, SigningKey> verificationKeys) {
+        this.current = current;
+        this.verificationKeys = Map.copyOf(verificationKeys);
+    }
+
+    static JwtSigningKeys of(String currentKeyId, String currentSecret) {
+        SigningKey key = SigningKey.hmac(currentKeyId, currentSecret);
+        return new JwtSigningKeys(key, Map.of(currentKeyId, key));
+    }
+
+    static JwtSigningKeys of(String currentKeyId, KeyPair keyPair, SignatureAlgorithm algorithm) {
+        SigningKey key = SigningKey.asymmetric(currentKeyId, keyPair, algorithm);
+        return new JwtSigningKeys(key, Map.of(currentKeyId, key));
+    }
+
+    /**
+     * Build a new snapshot signing with the given key while still accepting tokens
+     * signed with the current key of this snapshot.
+     *
+     * @param keyId  Identifier written to the "kid" header of new tokens
+     * @param secret Base64 encoded HMAC secret
+     * @return Rotated key snapshot
+     */
+    JwtSigningKeys rotate(String keyId, String secret) {
+        return rotate(SigningKey.hmac(keyId, secret));
+    }
+
+    /**
+     * Same as {@link #rotate(String, String)} for an RSA or EC key pair.
+     *
+     * @param keyId     Identifier written to the "kid" header of new tokens
+     * @param keyPair   Key pair, the private key signs and the public key is published
+     * @param algorithm RS* or ES* algorithm matching the key pair
+     * @return Rotated key snapshot
+     */
+    JwtSigningKeys rotate(String keyId, KeyPair keyPair, SignatureAlgorithm algorithm) {
+        return rotate(SigningKey.asymmetric(keyId, keyPair, algorithm));
+    }
+
+    private JwtSigningKeys rotate(SigningKey key) {
+        if (StringUtils.equals(key.keyId, current.keyId)) {
+            throw new IllegalArgumentException("Key id is already in use: " + key.keyId);
+        }
+        Map<String, SigningKey> keys = new HashMap<>();
+        keys.put(current.keyId, current);
+        keys.put(key.keyId, key);
+        return new JwtSigningKeys(key, keys);
+    }
+
+    String getCurrentKeyId() {
+        return current.keyId;
+    }
+
+    Key getCurrentKey() {
+        return current.signingKey;
+    }
+
+    SignatureAlgorithm getCurrentAlgorithm() {
+        return current.algorithm;
+    }
+
+    /**
+     * @return Public keys by key id, current key first. HMAC keys are never published.
+     */
+    Map<String, PublicKey> getPublicKeys() {
+        Map<String, PublicKey> publicKeys = new LinkedHashMap<>();
+        if (current.verificationKey instanceof PublicKey publicKey) {
+            publicKeys.put(current.keyId, publicKey);
+        }
+        verificationKeys.forEach((keyId, key) -> {
+            if (key.verificationKey instanceof PublicKey publicKey) {
+                publicKeys.putIfAbsent(keyId, publicKey);
+            }
+        });
+        return publicKeys;
+    }
+
+    /**
+     * @param keyId Key id
+     * @return Algorithm of the key, null if the key id is unknown
+     */
+    SignatureAlgorithm getAlgorithm(String keyId) {
+        SigningKey key = verificationKeys.get(keyId);
+        return key == null ? null : key.algorithm;
+    }
+
+    /**
+     * Resolve the verification key for the "kid" header of a token.
+     * Tokens issued before key ids were introduced carry no "kid" and are verified with the current key.
+     *
+     * @param keyId     Key identifier from the token header, may be null
+     * @param algorithm Algorithm from the "alg" header of the token
+     * @return Verification key
+     */
+    Key resolve(String keyId, String algorithm) {
+        SigningKey key = keyId == null ? current : verificationKeys.get(keyId);
+        if (key == null) {
+            throw new SignatureException("Unknown signing key id: " + keyId);
+        }
+        if (!key.algorithm.getValue().equals(algorithm)) {
+            throw new SignatureException("Algorithm " + algorithm + " does not match signing key id: " + key.keyId);
+        }
+        return key.verificationKey;
+    }
+
+    private static final class SigningKey {
+
+        private final String keyId;
+
+        private final SignatureAlgorithm algorithm;
+
+        private final Key signingKey;
+
+        private final Key verificationKey;
+
+        private SigningKey(String keyId, SignatureAlgorithm algorithm, Key signingKey, Key verificationKey) {
+            this.keyId = keyId;
+            this.algorithm = algorithm;
+            this.signingKey = signingKey;
+            this.verificationKey = verificationKey;
+        }
+
+        static SigningKey hmac(String keyId, String secret) {
+            byte[] keyBytes = Decoders.BASE64.decode(secret);
+            Key key = Keys.hmacShaKeyFor(keyBytes);
+            return new SigningKey(keyId, SignatureAlgorithm.HS256, key, key);
+        }
+
+        static SigningKey asymmetric(String keyId, KeyPair keyPair, SignatureAlgorithm algorithm) {
+            if (!algorithm.isRsa() && !algorithm.isEllipticCurve()) {
+                throw new IllegalArgumentException("Not an asymmetric algorithm: " + algorithm);
+            }
+            return new SigningKey(keyId, algorithm, keyPair.getPrivate(), keyPair.getPublic());
+        }
+    }
+}
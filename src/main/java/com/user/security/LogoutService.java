@@ -1,6 +1,7 @@
 package com.user.security;
 
-import com.user.token.Token;
+import com.user.token.TokenIds;
+import com.user.token.TokenLedgerWriter;
 import com.user.token.TokenRepository;
 import com.user.utils.Constants;
 import jakarta.servlet.http.HttpServletRequest;
@@ -18,6 +19,10 @@ public class LogoutService implements LogoutHandler {
 
     private final TokenRepository tokenRepository;
 
+    private final TokenLedgerWriter tokenLedgerWriter;
+
+    private final JwtService jwtService;
+
     @Override
     public void logout(
             @NonNull HttpServletRequest request,
@@ -30,13 +35,14 @@ public class LogoutService implements LogoutHandler {
             return;
         }
         jwt = authHeader.substring(7);
-        var storedToken = tokenRepository.findByToken(jwt)
+        var revokedToken = jwtService.revokeToken(jwt)
                 .orElse(null);
-        if (storedToken != null) {
-            storedToken.setExpired(true);
-            storedToken.setRevoked(true);
-            Token token = tokenRepository.save(storedToken);
-//            tokenRepository.delete(storedToken);
+        if (revokedToken != null) {
+            if (revokedToken.getJti() != null) {
+                byte[] jti = TokenIds.toBytes(revokedToken.getJti());
+                tokenLedgerWriter.revokePending(jti);
+                tokenRepository.revokeByJti(jti);
+            }
             SecurityContextHolder.clearContext();
         }
     }
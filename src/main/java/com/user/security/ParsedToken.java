@@ -0,0 +1,56 @@
+package com.user.security;
+
+import io.jsonwebtoken.Claims;
+import lombok.Getter;
+
+import java.util.Date;
+import java.util.function.Function;
+
+/**
+ * Result of a single signature verification and parse of a JWT.
+ * All claim accessors read from the already parsed body.
+ */
+@Getter
+public class ParsedToken {
+
+    private final String jti;
+
+    private final String subject;
+
+    private final Date issuedAt;
+
+    private final Date expiration;
+
+    private final Claims claims;
+
+    ParsedToken(Claims claims) {
+        this.claims = claims;
+        this.jti = claims.getId();
+        this.subject = claims.getSubject();
+        this.issuedAt = claims.getIssuedAt();
+        this.expiration = claims.getExpiration();
+    }
+
+    public <T> T getClaim(Function<Claims, T> claimsResolver) {
+        return claimsResolver.apply(claims);
+    }
+
+    public <T> T getClaim(String name, Class<T> requiredType) {
+        return claims.get(name, requiredType);
+    }
+
+    /**
+     * @return Issue time in epoch millis, from the issued-at claim in whole seconds for tokens without the millisecond claim
+     */
+    public Long getIssuedAtMillis() {
+        Long issuedAtMillis = claims.get(JwtService.CLAIM_ISSUED_AT_MILLIS, Long.class);
+        if (issuedAtMillis != null) {
+            return issuedAtMillis;
+        }
+        return issuedAt == null ? null : issuedAt.getTime();
+    }
+
+    public boolean isExpired() {
+        return expiration != null && expiration.before(new Date());
+    }
+}
@@ -0,0 +1,62 @@
+package com.user.security;
+
+import com.user.cache.UserProfileCache;
+import com.user.pojo.Credentials;
+import com.user.pojo.User;
+import com.user.repository.CredentialsRepository;
+import com.user.repository.UserRepository;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.stereotype.Service;
+
+/**
+ * Stores a re-hashed password after a successful login whose stored hash used a lower work factor.
+ */
+@Slf4j
+@Service
+@Transactional
+public class PasswordUpgradeService implements UserDetailsPasswordService {
+
+    private final UserRepository userRepo;
+
+    private final CredentialsRepository credentialsRepo;
+
+    private final CaffeineUserCache userCache;
+
+    private final UserProfileCache userProfileCache;
+
+    @Autowired
+    public PasswordUpgradeService(final UserRepository userRepo,
+                                  final CredentialsRepository credentialsRepo,
+                                  final CaffeineUserCache userCache,
+                                  final UserProfileCache userProfileCache) {
+        this.userRepo = userRepo;
+        this.credentialsRepo = credentialsRepo;
+        this.userCache = userCache;
+        this.userProfileCache = userProfileCache;
+    }
+
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepo.findByEmail(userDetails.getUsername())
+                .orElse(null);
+        if (user == null) {
+            return userDetails;
+        }
+        user.setPassword(newPassword);
+        User savedUser = userRepo.save(user);
+
+        Credentials credentials = credentialsRepo.findByEmail(userDetails.getUsername());
+        if (credentials != null) {
+            credentials.setPassword(newPassword);
+            credentialsRepo.save(credentials);
+        }
+        userCache.invalidate(userDetails.getUsername());
+        userProfileCache.invalidate(savedUser.getUserId());
+        log.info("Upgraded password hash for User Id: {}", savedUser.getUserId());
+        return savedUser;
+    }
+}
@@ -0,0 +1,137 @@
+package com.user.security;
+
+import com.user.exceptions.AuthenticationException;
+import com.user.models.response.AuthenticationResponse;
+import com.user.pojo.Role;
+import com.user.pojo.User;
+import com.user.token.Token;
+import com.user.token.TokenIds;
+import com.user.token.TokenLedgerWriter;
+import com.user.token.TokenRepository;
+import com.user.token.TokenType;
+import com.user.utils.Constants;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Issues access and refresh token pairs and rotates refresh tokens.
+ * <p>
+ * Every pair issued from one login shares a token family id. A refresh token is consumed exactly once,
+ * in its buffered ledger entry or with one conditional update on the jti index. A refresh token of the
+ * family presented again after it was consumed is treated as stolen, and every token of the family is
+ * revoked. Tokens revoked because every token of the user was revoked, by a later login, are only rejected.
+ */
+@Slf4j
+@Service
+public class RefreshTokenService {
+
+    private final JwtService jwtService;
+
+    private final TokenLedgerWriter tokenLedgerWriter;
+
+    private final TokenRepository tokenRepository;
+
+    private final TokenRevocationIndex tokenRevocationIndex;
+
+    private final Counter reuseCounter;
+
+    @Autowired
+    public RefreshTokenService(final JwtService jwtService,
+                               final TokenLedgerWriter tokenLedgerWriter,
+                               final TokenRepository tokenRepository,
+                               final TokenRevocationIndex tokenRevocationIndex,
+                               final MeterRegistry meterRegistry) {
+        this.jwtService = jwtService;
+        this.tokenLedgerWriter = tokenLedgerWriter;
+        this.tokenRepository = tokenRepository;
+        this.tokenRevocationIndex = tokenRevocationIndex;
+        this.reuseCounter = Counter.builder("user.auth.refresh.reuse")
+                .description("Refresh tokens presented again after they were rotated")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sign an access and a refresh token of the given family and buffer both ledger entries.
+     *
+     * @param user   Owner of the tokens
+     * @param family Token family id
+     * @return Authorization Response with JWT Token
+     */
+    public AuthenticationResponse issueTokens(User user, String family) {
+        IssuedToken accessToken = jwtService.issueToken(user);
+        IssuedToken refreshToken = jwtService.issueRefreshToken(user, family);
+        byte[] familyId = TokenIds.toBytes(family);
+        tokenLedgerWriter.enqueue(ledgerEntry(user, accessToken, TokenType.BEARER, familyId),
+                ledgerEntry(user, refreshToken, TokenType.REFRESH, familyId));
+        return AuthenticationResponse.builder()
+                .accessToken(accessToken.getToken())
+                .refreshToken(refreshToken.getToken())
+                .build();
+    }
+
+    /**
+     * Exchange a refresh token for a new pair of the same family. No password hash is checked and
+     * no user is loaded, the user id and role come from the verified token.
+     *
+     * @param token Refresh Token
+     * @return Authorization Response with JWT Token
+     * @throws AuthenticationException if the token is not a valid, unused refresh token
+     */
+    public AuthenticationResponse rotate(String token) throws AuthenticationException {
+        ParsedToken refreshToken = jwtService.validateRefreshToken(token);
+        String family = refreshToken.getClaim(JwtService.CLAIM_FAMILY, String.class);
+
+        if (tokenRevocationIndex.isRevokedForUser(refreshToken)) {
+            throw new AuthenticationException("Refresh token has been revoked. Please Login", Constants.ERR_AUTHENTICATION);
+        }
+        byte[] jti = TokenIds.toBytes(refreshToken.getJti());
+        if (!tokenLedgerWriter.consumePending(jti) && tokenRepository.consumeByJti(jti) == 0) {
+            reuseCounter.increment();
+            log.warn("Refresh token reused for User: {}, revoking token family: {}", refreshToken.getSubject(), family);
+            revokeFamily(TokenIds.toBytes(family));
+            throw new AuthenticationException("Refresh token is no longer valid. Please Login", Constants.ERR_AUTHENTICATION);
+        }
+
+        String role = refreshToken.getClaim(JwtService.CLAIM_ROLE, String.class);
+        User user = User.builder()
+                .userId(refreshToken.getClaim(JwtService.CLAIM_USER_ID, Integer.class))
+                .email(refreshToken.getSubject())
+                .role(role == null ? null : Role.valueOf(role))
+                .build();
+        return issueTokens(user, family);
+    }
+
+    /**
+     * Revoke every access and refresh token rotated from the same login. Buffered entries are revoked
+     * first, under the ledger flush lock, so an entry being flushed is committed before the update runs.
+     *
+     * @param family Token family id
+     */
+    private void revokeFamily(byte[] family) {
+        List<Token> buffered = tokenLedgerWriter.revokePendingFamily(family);
+        List<Token> persisted = tokenRepository.findLiveByFamily(family, new Date());
+        tokenRepository.revokeFamily(family);
+        Stream.concat(buffered.stream(), persisted.stream())
+                .forEach(entry -> tokenRevocationIndex.revoke(
+                        TokenIds.fromBytes(entry.getJti()), entry.getExpiresAt().getTime()));
+    }
+
+    private static Token ledgerEntry(User user, IssuedToken issuedToken, TokenType tokenType, byte[] family) {
+        return Token.builder()
+                .user(user)
+                .jti(TokenIds.toBytes(issuedToken.getJti()))
+                .tokenType(tokenType)
+                .family(family)
+                .expired(false)
+                .revoked(false)
+                .expiresAt(issuedToken.getExpiresAt())
+                .build();
+    }
+}
@@ -12,8 +12,11 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.authentication.logout.LogoutHandler;
 
+import static com.user.pojo.Role.ADMIN;
+import static org.springframework.http.HttpMethod.POST;
 import static org.springframework.security.config.http.SessionCreationPolicy.STATELESS;
 
 @Configuration
@@ -24,8 +27,13 @@ public class SecurityConfig {
 
     private static final String[] WHITE_LIST_URL = {
             "/user/login",
+            "/user/refresh",
             "/user/signup",
             "/auth/validate-jwt",
+            "/auth/validate-jwt/claims",
+            "/auth/validate-jwt/batch",
+            "/.well-known/jwks.json",
+            "/actuator/health",
             "/swagger-resources",
             "/swagger-resources/**",
             "/configuration/ui",
@@ -40,11 +48,15 @@ public class SecurityConfig {
 
     LogoutHandler logoutHandler;
 
+    JwtAuthenticationFilter jwtAuthenticationFilter;
+
     @Autowired
-    public SecurityConfig(ApplicationConfig applicationConfig, AuthenticationProvider authenticationProvider, LogoutHandler logoutHandler) {
+    public SecurityConfig(ApplicationConfig applicationConfig, AuthenticationProvider authenticationProvider, LogoutHandler logoutHandler,
+                          JwtAuthenticationFilter jwtAuthenticationFilter) {
         this.applicationConfig = applicationConfig;
         this.authenticationProvider = authenticationProvider;
         this.logoutHandler = logoutHandler;
+        this.jwtAuthenticationFilter = jwtAuthenticationFilter;
     }
 
     @Bean
@@ -54,6 +66,11 @@ public class SecurityConfig {
                 .authorizeHttpRequests(req ->
                         req.requestMatchers(WHITE_LIST_URL)
                                 .permitAll()
+                                .requestMatchers("/admin/**").hasAuthority(ADMIN.name())
+                                // Reads the addresses of any users, not just the caller's
+                                .requestMatchers(POST, "/user/address/batch").hasAuthority(ADMIN.name())
+                                // Only health is public, metrics reveal traffic and user activity
+                                .requestMatchers("/actuator/metrics/**", "/actuator/prometheus").hasAuthority(ADMIN.name())
 //                                .requestMatchers("/api/v1/management/**").hasAnyRole(ADMIN.name(), MANAGER.name())
 //                                .requestMatchers(GET, "/api/v1/management/**").hasAnyAuthority(ADMIN_READ.name(), MANAGER_READ.name())
 //                                .requestMatchers(POST, "/api/v1/management/**").hasAnyAuthority(ADMIN_CREATE.name(), MANAGER_CREATE.name())
@@ -68,6 +85,7 @@ public class SecurityConfig {
                 .authenticationProvider(
                         authenticationProvider
                 )
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
                 .logout(logout ->
                         logout.logoutUrl("/api/v1/user/logout")
                                 .addLogoutHandler(logoutHandler)
@@ -0,0 +1,161 @@
+package com.user.security;
+
+import com.user.cache.DistributedCache;
+import com.user.cache.TwoTierCacheManager;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of revoked tokens.
+ * <p>
+ * Single tokens are revoked by id ("jti") and kept until they would have expired on their own.
+ * Revoking every token of a user records a per-user watermark instead: tokens of that user issued
+ * up to the watermark millisecond are rejected. Revocation checks are hash lookups and never touch
+ * the database.
+ * <p>
+ * Revocations are also written to the {@link DistributedCache} and announced to the other nodes,
+ * which copy them into their own index. Checks never go to the distributed cache, a revocation whose
+ * message was lost is picked up when {@link TokenRevocationIndexLoader} reconciles the index with the
+ * token ledger.
+ */
+@Slf4j
+@Component
+public class TokenRevocationIndex {
+
+    static final String REVOKED_TOKENS = "revokedTokens";
+
+    static final String REVOKED_USERS = "revokedUsers";
+
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    private final Map<Integer, Long> revokedBefore = new ConcurrentHashMap<>();
+
+    private final long maxTokenLifetime;
+
+    private final TwoTierCacheManager cacheManager;
+
+    private final DistributedCache distributedCache;
+
+    @Autowired
+    public TokenRevocationIndex(MeterRegistry meterRegistry,
+                                @Value("${application.security.jwt.refresh-token.expiration}") long maxTokenLifetime,
+                                TwoTierCacheManager cacheManager) {
+        this.maxTokenLifetime = maxTokenLifetime;
+        this.cacheManager = cacheManager;
+        this.distributedCache = cacheManager.getDistributedCache();
+        cacheManager.onInvalidation(REVOKED_TOKENS, jti -> syncToken((String) jti));
+        cacheManager.onInvalidation(REVOKED_USERS, userId -> syncUser((Integer) userId));
+        Gauge.builder("token.revocation.index.size", revokedTokens, Map::size)
+                .description("Revoked tokens that have not expired yet")
+                .register(meterRegistry);
+        Gauge.builder("token.revocation.index.users", revokedBefore, Map::size)
+                .description("Users whose tokens were all revoked within the maximum token lifetime")
+                .register(meterRegistry);
+    }
+
+    public boolean isRevoked(ParsedToken parsedToken) {
+        return (parsedToken.getJti() != null && isRevokedToken(parsedToken.getJti()))
+                || isRevokedForUser(parsedToken);
+    }
+
+    /**
+     * @param parsedToken Parsed Token
+     * @return true if the token was issued before every token of its user was revoked
+     */
+    public boolean isRevokedForUser(ParsedToken parsedToken) {
+        Integer userId = parsedToken.getClaim(JwtService.CLAIM_USER_ID, Integer.class);
+        Long issuedAt = parsedToken.getIssuedAtMillis();
+        if (userId == null || issuedAt == null) {
+            return false;
+        }
+        Long watermark = revokedBefore.get(userId);
+        return watermark != null && issuedAt <= watermark;
+    }
+
+    private boolean isRevokedToken(String jti) {
+        return revokedTokens.containsKey(jti);
+    }
+
+    /**
+     * Copy a revocation announced by another node from the distributed cache.
+     *
+     * @param jti Token id
+     */
+    private void syncToken(String jti) {
+        if (distributedCache.get(REVOKED_TOKENS, jti) instanceof Long expiresAt) {
+            load(jti, expiresAt);
+        }
+    }
+
+    private void syncUser(Integer userId) {
+        if (distributedCache.get(REVOKED_USERS, userId) instanceof Long watermark) {
+            revokedBefore.merge(userId, watermark, Math::max);
+        }
+    }
+
+    /**
+     * Mark a token as revoked.
+     *
+     * @param jti       Token id
+     * @param expiresAt Expiry of the token in epoch millis
+     */
+    public void revoke(String jti, long expiresAt) {
+        final long remaining = expiresAt - System.currentTimeMillis();
+        if (remaining > 0) {
+            revokedTokens.put(jti, expiresAt);
+            distributedCache.put(REVOKED_TOKENS, jti, expiresAt, Duration.ofMillis(remaining));
+            cacheManager.publishInvalidation(REVOKED_TOKENS, jti);
+        }
+    }
+
+    /**
+     * Add a revoked token to the index of this node only, for revocations every node reads on its own.
+     *
+     * @param jti       Token id
+     * @param expiresAt Expiry of the token in epoch millis
+     */
+    public void load(String jti, long expiresAt) {
+        if (expiresAt > System.currentTimeMillis()) {
+            revokedTokens.put(jti, expiresAt);
+        }
+    }
+
+    /**
+     * Revoke every token of the user issued up to the current millisecond, tokens carry their issue
+     * time in milliseconds. Returns once that millisecond has passed, so tokens issued by this node
+     * after the call, like the ones of the login revoking the previous ones, stay valid.
+     *
+     * @param userId User IDENTIFIER
+     */
+    public void revokeAllForUser(Integer userId) {
+        long watermark = System.currentTimeMillis();
+        long latest = revokedBefore.merge(userId, watermark, Math::max);
+        distributedCache.put(REVOKED_USERS, userId, latest, Duration.ofMillis(maxTokenLifetime));
+        cacheManager.publishInvalidation(REVOKED_USERS, userId);
+        while (System.currentTimeMillis() <= watermark) {
+            Thread.onSpinWait();
+        }
+    }
+
+    public int size() {
+        return revokedTokens.size();
+    }
+
+    @Scheduled(fixedDelayString = "${application.security.jwt.revocation.prune-interval:600000}")
+    public void prune() {
+        final long now = System.currentTimeMillis();
+        int before = revokedTokens.size() + revokedBefore.size();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+        revokedBefore.values().removeIf(watermark -> watermark + maxTokenLifetime <= now);
+        log.debug("Pruned {} expired entries from token revocation index", before - revokedTokens.size() - revokedBefore.size());
+    }
+}
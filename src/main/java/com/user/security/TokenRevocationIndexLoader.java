@@ -0,0 +1,52 @@
+package com.user.security;
+
+import com.user.token.Token;
+import com.user.token.TokenIds;
+import com.user.token.TokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Warms the {@link TokenRevocationIndex} from the token ledger once the application is ready, then
+ * reconciles it with the ledger periodically so revocations whose broadcast never arrived still apply.
+ */
+@Slf4j
+@Component
+public class TokenRevocationIndexLoader {
+
+    private final TokenRepository tokenRepository;
+
+    private final TokenRevocationIndex tokenRevocationIndex;
+
+    @Autowired
+    public TokenRevocationIndexLoader(final TokenRepository tokenRepository,
+                                      final TokenRevocationIndex tokenRevocationIndex) {
+        this.tokenRepository = tokenRepository;
+        this.tokenRevocationIndex = tokenRevocationIndex;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${application.security.jwt.revocation.reconcile-interval:300000}",
+            fixedDelayString = "${application.security.jwt.revocation.reconcile-interval:300000}")
+    @Transactional(readOnly = true)
+    public void load() {
+        long start = System.currentTimeMillis();
+        AtomicInteger count = new AtomicInteger();
+        try (Stream<Token> revokedTokens = tokenRepository.streamRevokedLiveTokens(new Date())) {
+            revokedTokens.forEach(token -> {
+                tokenRevocationIndex.load(TokenIds.fromBytes(token.getJti()), token.getExpiresAt().getTime());
+                count.incrementAndGet();
+            });
+        }
+        log.info("Loaded {} revoked tokens into revocation index in {} (ms)", count.get(), System.currentTimeMillis() - start);
+    }
+}
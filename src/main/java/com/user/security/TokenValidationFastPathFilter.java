@@ -0,0 +1,112 @@
+package com.user.security;
+
+import com.user.exceptions.AuthenticationException;
+import com.user.utils.Constants;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Answers token validation requests before they reach the security filter chain and MVC dispatch.
+ * <p>
+ * The token is read from the "token" parameter or a bearer Authorization header and checked with
+ * {@link JwtService#validateAndGetClaims(String)}, so verified tokens are served from the same cache
+ * as every other request. The response is 200 or 401 with a small hand-written JSON body; claims are
+ * only written when requested with claims=true.
+ */
+@Slf4j
+public class TokenValidationFastPathFilter extends OncePerRequestFilter {
+
+    public static final String PATH = "/auth/validate-jwt/fast";
+
+    private static final byte[] VALID = "{\"valid\":true}".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] INVALID = "{\"valid\":false}".getBytes(StandardCharsets.UTF_8);
+
+    private final JwtService jwtService;
+
+    public TokenValidationFastPathFilter(final JwtService jwtService) {
+        this.jwtService = jwtService;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        ParsedToken parsedToken = null;
+        String token = resolveToken(request);
+        if (token != null) {
+            try {
+                parsedToken = jwtService.validateAndGetClaims(token);
+            } catch (JwtException | AuthenticationException | IllegalArgumentException e) {
+                log.debug("Token rejected on fast path: {}", e.getMessage());
+            }
+        }
+
+        byte[] body;
+        if (parsedToken == null) {
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            body = INVALID;
+        } else {
+            response.setStatus(HttpServletResponse.SC_OK);
+            body = "true".equals(request.getParameter("claims")) ? claims(parsedToken) : VALID;
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static String resolveToken(HttpServletRequest request) {
+        String token = request.getParameter("token");
+        if (token != null && !token.isEmpty()) {
+            return token;
+        }
+        String authHeader = request.getHeader(Constants.TOKEN_HEADER);
+        if (authHeader != null && authHeader.startsWith(Constants.TOKEN_PREFIX)) {
+            return authHeader.substring(Constants.TOKEN_PREFIX.length());
+        }
+        return null;
+    }
+
+    private static byte[] claims(ParsedToken parsedToken) {
+        StringBuilder json = new StringBuilder(128).append("{\"valid\":true");
+        appendString(json, "sub", parsedToken.getSubject());
+        Integer userId = parsedToken.getClaim(JwtService.CLAIM_USER_ID, Integer.class);
+        if (userId != null) {
+            json.append(",\"userId\":").append(userId.intValue());
+        }
+        appendString(json, "role", parsedToken.getClaim(JwtService.CLAIM_ROLE, String.class));
+        if (parsedToken.getExpiration() != null) {
+            json.append(",\"exp\":").append(parsedToken.getExpiration().getTime() / 1000);
+        }
+        return json.append('}').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void appendString(StringBuilder json, String name, String value) {
+        if (value == null) {
+            return;
+        }
+        json.append(",\"").append(name).append("\":\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+}
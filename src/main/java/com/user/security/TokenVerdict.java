@@ -0,0 +1,12 @@
+package com.user.security;
+
+/**
+ * Outcome of verifying a token without throwing, see {@link JwtService#verify(String)}.
+ */
+public enum TokenVerdict {
+    VALID,
+    EXPIRED,
+    REVOKED,
+    BAD_SIGNATURE,
+    MALFORMED
+}
@@ -0,0 +1,16 @@
+package com.user.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class TokenVerification {
+
+    private final TokenVerdict verdict;
+
+    /**
+     * Subject of the token, null when the token could not be read.
+     */
+    private final String subject;
+}
@@ -0,0 +1,88 @@
+package com.user.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of successfully verified tokens keyed by the SHA-256 digest of the token.
+ * <p>
+ * An entry lives until the token expires or the configured TTL elapses, whichever comes first.
+ * Failed verifications are never cached. Hit, miss and eviction counts are published under
+ * the "cache.*" meters with the tag cache=verifiedTokens.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    static final String CACHE_NAME = "verifiedTokens";
+
+    private final Cache<String, ParsedToken> cache;
+
+    @Autowired
+    public VerifiedTokenCache(@Value("${application.security.jwt.cache.maximum-size:100000}") long maximumSize,
+                              @Value("${application.security.jwt.cache.ttl:300000}") long ttl,
+                              MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TokenExpiry(TimeUnit.MILLISECONDS.toNanos(ttl)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Return the cached verification result for the token, running the verifier on a miss.
+     * Concurrent misses for the same token share one verification.
+     *
+     * @param tokenDigest SHA-256 digest of the token
+     * @param verifier    Full signature verification, its exceptions are propagated and not cached
+     * @return Parsed Token
+     */
+    public ParsedToken get(String tokenDigest, Supplier<ParsedToken> verifier) {
+        return cache.get(tokenDigest, digest -> verifier.get());
+    }
+
+    public void invalidate(String tokenDigest) {
+        cache.invalidate(tokenDigest);
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private static class TokenExpiry implements Expiry<String, ParsedToken> {
+
+        private final long ttlNanos;
+
+        TokenExpiry(long ttlNanos) {
+            this.ttlNanos = ttlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, ParsedToken value, long currentTime) {
+            if (value.getExpiration() == null) {
+                return ttlNanos;
+            }
+            long untilExpiry = TimeUnit.MILLISECONDS.toNanos(value.getExpiration().getTime() - System.currentTimeMillis());
+            return Math.max(0, Math.min(ttlNanos, untilExpiry));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, ParsedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, ParsedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
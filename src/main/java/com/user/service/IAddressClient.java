@@ -7,8 +7,11 @@ import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 
 import java.util.List;
+import java.util.Map;
 
 //@FeignClient(url = "http://localhost:8082/address", value = "Address-Client")
 @FeignClient(name = "ADDRESS-SERVICE")
@@ -21,4 +24,19 @@ public interface IAddressClient {
     APIResponseEntity<List<Address>> getAddresses(
             @Parameter(description = "User Identifier", required = true) @PathVariable("userId") int userId
     );
+
+    /**
+     * Bulk lookup, only called when application.address.batch.enabled is set.
+     *
+     * @param userIds User IDENTIFIERS
+     * @return Addresses by user id
+     */
+    @PostMapping(
+            value = "/address/list/batch",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    APIResponseEntity<Map<Integer, List<Address>>> getAddressesBatch(
+            @Parameter(description = "User Identifiers", required = true) @RequestBody List<Integer> userIds
+    );
 }
@@ -2,13 +2,16 @@ package com.user.service;
 
 import com.user.exceptions.BusinessException;
 import com.user.exceptions.ResourceNotFoundException;
+import com.user.models.request.RefreshTokenRequest;
 import com.user.models.request.SignInRequest;
 import com.user.models.response.AuthenticationResponse;
+import com.user.models.response.UserProfileResponse;
 import com.user.pojo.Address;
 import com.user.pojo.Credentials;
 import com.user.pojo.User;
 
 import java.util.List;
+import java.util.Map;
 
 public interface IUserService {
 
@@ -20,6 +23,14 @@ public interface IUserService {
      */
     AuthenticationResponse userSignIn(SignInRequest user) throws  BusinessException, ResourceNotFoundException;
 
+    /**
+     * Exchange a refresh token for a new access token and a rotated refresh token
+     *
+     * @param request Refresh Token Request Body
+     * @return Authorization Response with JWT Token
+     */
+    AuthenticationResponse userRefresh(RefreshTokenRequest request) throws BusinessException;
+
     /**
      * User Login
      *
@@ -45,6 +56,15 @@ public interface IUserService {
      */
     User getProfile(int id) throws BusinessException, Exception;
 
+    /**
+     * Get User Profile for given user with the User Addresses filled in
+     *
+     * @param id User IDENTIFIER
+     * @return User Details with Addresses, flagged as degraded if the addresses are missing
+     * @throws BusinessException BusinessException
+     */
+    UserProfileResponse getProfileWithAddresses(int id) throws BusinessException, Exception;
+
     /**
      * Get User Addresses for given user
      *
@@ -53,4 +73,13 @@ public interface IUserService {
      * @throws BusinessException BusinessException
      */
     List<Address> getAddress(Integer userId) throws BusinessException, Exception;
+
+    /**
+     * Get User Addresses for many users at once
+     *
+     * @param userIds User IDENTIFIERS
+     * @return Addresses by User Id, in request order
+     * @throws BusinessException BusinessException
+     */
+    Map<Integer, List<Address>> getAddresses(List<Integer> userIds) throws BusinessException, Exception;
 }
@@ -0,0 +1,159 @@
+package com.user.service.impl;
+
+import com.user.models.response.APIResponseEntity;
+import com.user.pojo.Address;
+import com.user.service.IAddressClient;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Loads addresses from ADDRESS-SERVICE, one user at a time or in bulk.
+ * <p>
+ * With batching enabled, lookups requested within the batch window are sent as one bulk call
+ * and the result is split back per user. Without it (ADDRESS-SERVICE has no bulk API), every
+ * lookup is a single call on the fan-out executor, so many users are still fetched in parallel.
+ * A lookup cancelled while it waits on the executor is skipped.
+ */
+@Slf4j
+@Component
+public class AddressBatchLoader {
+
+    private final IAddressClient addressClient;
+
+    private final Executor fanOutExecutor;
+
+    private final boolean batchEnabled;
+
+    private final long window;
+
+    private final int maxBatchSize;
+
+    private final Map<Integer, CompletableFuture<List<Address>>> pending = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private final ScheduledExecutorService batcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "address-batcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public AddressBatchLoader(final IAddressClient addressClient,
+                              @Qualifier("addressFanOutExecutor") final Executor fanOutExecutor,
+                              @Value("${application.address.batch.enabled:false}") boolean batchEnabled,
+                              @Value("${application.address.batch.window:5}") long window,
+                              @Value("${application.address.batch.max-size:100}") int maxBatchSize) {
+        this.addressClient = addressClient;
+        this.fanOutExecutor = fanOutExecutor;
+        this.batchEnabled = batchEnabled;
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * @param userId User IDENTIFIER
+     * @return Addresses of the user, completed once the call (or the batch holding it) returns
+     */
+    public CompletableFuture<List<Address>> load(Integer userId) {
+        if (!batchEnabled) {
+            return loadOne(userId);
+        }
+        CompletableFuture<List<Address>> future = pending.computeIfAbsent(userId, id -> new CompletableFuture<>());
+        if (pending.size() >= maxBatchSize) {
+            batcher.execute(this::flush);
+        } else if (flushScheduled.compareAndSet(false, true)) {
+            batcher.schedule(this::flush, window, TimeUnit.MILLISECONDS);
+        }
+        return future;
+    }
+
+    /**
+     * @param userIds User IDENTIFIERS
+     * @return Lookups by user id, batched like {@link #load(Integer)}
+     */
+    public Map<Integer, CompletableFuture<List<Address>>> loadAll(Iterable<Integer> userIds) {
+        Map<Integer, CompletableFuture<List<Address>>> futures = new HashMap<>();
+        for (Integer userId : userIds) {
+            futures.computeIfAbsent(userId, this::load);
+        }
+        return futures;
+    }
+
+    private CompletableFuture<List<Address>> loadOne(Integer userId) {
+        CompletableFuture<List<Address>> future = new CompletableFuture<>();
+        try {
+            fanOutExecutor.execute(() -> {
+                if (future.isDone()) {
+                    return;
+                }
+                try {
+                    future.complete(addressClient.getAddresses(userId).getData());
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batcher.shutdown();
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+        Map<Integer, CompletableFuture<List<Address>>> batch = new HashMap<>();
+        for (Integer userId : pending.keySet()) {
+            CompletableFuture<List<Address>> future = pending.remove(userId);
+            if (future != null) {
+                batch.put(userId, future);
+            }
+            if (batch.size() == maxBatchSize) {
+                dispatch(batch);
+                batch = new HashMap<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+    }
+
+    private void dispatch(Map<Integer, CompletableFuture<List<Address>>> batch) {
+        try {
+            fanOutExecutor.execute(() -> {
+                try {
+                    APIResponseEntity<Map<Integer, List<Address>>> response =
+                            addressClient.getAddressesBatch(new ArrayList<>(batch.keySet()));
+                    Map<Integer, List<Address>> addresses = response.getData() == null ? Map.of() : response.getData();
+                    batch.forEach((userId, future) -> future.complete(addresses.getOrDefault(userId, List.of())));
+                    log.debug("Loaded addresses for {} users in one batch", batch.size());
+                } catch (Exception e) {
+                    batch.values().forEach(future -> future.completeExceptionally(e));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+}
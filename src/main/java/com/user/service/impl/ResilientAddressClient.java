@@ -0,0 +1,261 @@
+package com.user.service.impl;
+
+import com.user.cache.TwoTierCache;
+import com.user.cache.TwoTierCacheManager;
+import com.user.exceptions.ServiceUnavailableException;
+import com.user.pojo.Address;
+import com.user.utils.Constants;
+import feign.FeignException;
+import io.micrometer.observation.annotation.Observed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.circuitbreaker.CircuitBreaker;
+import org.springframework.cloud.client.circuitbreaker.CircuitBreakerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Calls to ADDRESS-SERVICE through a circuit breaker, with a short-lived cache in front.
+ * <p>
+ * Addresses younger than the TTL are served from the cache. Older entries are still served,
+ * up to the stale TTL, while a single background refresh fetches new ones. Concurrent
+ * misses for the same user share one remote call, which {@link AddressBatchLoader} may merge
+ * with lookups for other users.
+ * <p>
+ * A 4xx answer is the caller's problem, not an outage: it is rethrown unchanged and, through the
+ * ignore-exceptions setting of the circuit breakers, never counted towards opening them.
+ * <p>
+ * Multi-user lookups go through a circuit breaker and time limiter of their own, so a slow bulk
+ * request never opens the circuit for single lookups. The lookups still queued when it gives up
+ * are cancelled.
+ */
+@Slf4j
+@Observed(name = "address.client")
+@Component
+public class ResilientAddressClient {
+
+    static final String CACHE_NAME = "userAddresses";
+
+    static final String CIRCUIT_BREAKER = "addressService";
+
+    static final String BULK_CIRCUIT_BREAKER = "addressServiceBulk";
+
+    private final AddressBatchLoader addressLoader;
+
+    private final CircuitBreaker circuitBreaker;
+
+    private final CircuitBreaker bulkCircuitBreaker;
+
+    private final Executor refreshExecutor;
+
+    private final TwoTierCache<Integer, CachedAddresses> cache;
+
+    private final long ttl;
+
+    private final Map<Integer, CompletableFuture<List<Address>>> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ResilientAddressClient(final AddressBatchLoader addressLoader,
+                                  final CircuitBreakerFactory<?, ?> circuitBreakerFactory,
+                                  final TwoTierCacheManager cacheManager,
+                                  @Qualifier("addressRefreshExecutor") final Executor refreshExecutor,
+                                  @Value("${application.address.cache.maximum-size:10000}") long maximumSize,
+                                  @Value("${application.address.cache.ttl:30000}") long ttl,
+                                  @Value("${application.address.cache.stale-ttl:600000}") long staleTtl) {
+        this.addressLoader = addressLoader;
+        this.circuitBreaker = circuitBreakerFactory.create(CIRCUIT_BREAKER);
+        this.bulkCircuitBreaker = circuitBreakerFactory.create(BULK_CIRCUIT_BREAKER);
+        this.refreshExecutor = refreshExecutor;
+        this.ttl = ttl;
+        final Duration maximumAge = Duration.ofMillis(staleTtl);
+        this.cache = cacheManager.create(CACHE_NAME, maximumSize, addresses -> maximumAge);
+    }
+
+    /**
+     * @param userId User IDENTIFIER
+     * @return Addresses of the user, possibly stale
+     * @throws ServiceUnavailableException if nothing is cached and ADDRESS-SERVICE fails
+     * @throws FeignException.FeignClientException if ADDRESS-SERVICE rejects the lookup with a 4xx
+     */
+    public List<Address> getAddresses(Integer userId) throws ServiceUnavailableException {
+        CachedAddresses cached = cache.getIfPresent(userId);
+        if (cached == null) {
+            return load(userId);
+        }
+        if (System.currentTimeMillis() - cached.fetchedAt >= ttl) {
+            refresh(userId);
+        }
+        return cached.addresses;
+    }
+
+    /**
+     * Addresses of many users, cached entries are served as in {@link #getAddresses(Integer)}
+     * and the misses are loaded together. Misses already being loaded by another caller share
+     * that call instead.
+     *
+     * @param userIds User IDENTIFIERS
+     * @return Addresses by user id, in request order
+     * @throws ServiceUnavailableException if ADDRESS-SERVICE fails for any of the misses
+     * @throws FeignException.FeignClientException if ADDRESS-SERVICE rejects a lookup with a 4xx
+     */
+    public Map<Integer, List<Address>> getAddresses(Collection<Integer> userIds) throws ServiceUnavailableException {
+        Map<Integer, List<Address>> addresses = new LinkedHashMap<>();
+        List<Integer> misses = new ArrayList<>();
+        for (Integer userId : new LinkedHashSet<>(userIds)) {
+            CachedAddresses cached = cache.getIfPresent(userId);
+            if (cached == null) {
+                misses.add(userId);
+                addresses.put(userId, null);
+            } else {
+                if (System.currentTimeMillis() - cached.fetchedAt >= ttl) {
+                    refresh(userId);
+                }
+                addresses.put(userId, cached.addresses);
+            }
+        }
+        if (misses.isEmpty()) {
+            return addresses;
+        }
+        Map<Integer, CompletableFuture<List<Address>>> owned = new LinkedHashMap<>();
+        Map<Integer, CompletableFuture<List<Address>>> shared = new LinkedHashMap<>();
+        for (Integer userId : misses) {
+            CompletableFuture<List<Address>> call = new CompletableFuture<>();
+            CompletableFuture<List<Address>> existing = inFlight.putIfAbsent(userId, call);
+            if (existing == null) {
+                owned.put(userId, call);
+            } else {
+                shared.put(userId, existing);
+            }
+        }
+        try {
+            if (!owned.isEmpty()) {
+                addresses.putAll(fetchAll(owned));
+            }
+        } finally {
+            owned.forEach(inFlight::remove);
+        }
+        shared.forEach((userId, call) -> addresses.put(userId, join(call)));
+        return addresses;
+    }
+
+    public void invalidate(Integer userId) {
+        cache.invalidate(userId);
+    }
+
+    private void refresh(Integer userId) {
+        if (inFlight.containsKey(userId)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    load(userId);
+                } catch (RuntimeException e) {
+                    log.warn("Serving stale addresses for User Id: {}, refresh failed: {}", userId, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Address refresh queue is full, skipped refresh for User Id: {}", userId);
+        }
+    }
+
+    private List<Address> load(Integer userId) {
+        CompletableFuture<List<Address>> call = new CompletableFuture<>();
+        CompletableFuture<List<Address>> existing = inFlight.putIfAbsent(userId, call);
+        if (existing != null) {
+            return join(existing);
+        }
+        try {
+            List<Address> addresses = fetch(userId);
+            call.complete(addresses);
+            return addresses;
+        } catch (RuntimeException e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(userId, call);
+        }
+    }
+
+    private List<Address> fetch(Integer userId) {
+        return circuitBreaker.run(() -> store(userId, join(addressLoader.load(userId))), throwable -> {
+            throw unavailable("User Id: " + userId, throwable);
+        });
+    }
+
+    /**
+     * Load the addresses of the users in one bulk circuit breaker call and complete their in-flight
+     * calls. Lookups not started yet when the call fails or times out are cancelled.
+     *
+     * @param calls In-flight calls owned by this caller, by user id
+     * @return Addresses by user id
+     */
+    private Map<Integer, List<Address>> fetchAll(Map<Integer, CompletableFuture<List<Address>>> calls) {
+        Map<Integer, CompletableFuture<List<Address>>> lookups = addressLoader.loadAll(calls.keySet());
+        try {
+            Map<Integer, List<Address>> loaded = bulkCircuitBreaker.run(() -> {
+                Map<Integer, List<Address>> fetched = new HashMap<>();
+                lookups.forEach((userId, lookup) -> fetched.put(userId, store(userId, join(lookup))));
+                return fetched;
+            }, throwable -> {
+                throw unavailable(calls.size() + " users", throwable);
+            });
+            calls.forEach((userId, call) -> call.complete(loaded.get(userId)));
+            return loaded;
+        } catch (RuntimeException e) {
+            lookups.values().forEach(lookup -> lookup.cancel(false));
+            calls.values().forEach(call -> call.completeExceptionally(e));
+            throw e;
+        }
+    }
+
+    private static List<Address> join(CompletableFuture<List<Address>> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private List<Address> store(Integer userId, List<Address> addresses) {
+        if (addresses != null) {
+            cache.put(userId, new CachedAddresses(addresses, System.currentTimeMillis()));
+        }
+        return addresses;
+    }
+
+    private static RuntimeException unavailable(String lookup, Throwable throwable) {
+        if (throwable instanceof FeignException.FeignClientException clientError) {
+            return clientError;
+        }
+        log.info("Address service call failed for {}: {}", lookup, throwable.getMessage());
+        return new ServiceUnavailableException("Address service is unavailable, please retry", Constants.ERR_SERVICE_UNAVAILABLE);
+    }
+
+    private static class CachedAddresses {
+
+        private final List<Address> addresses;
+
+        private final long fetchedAt;
+
+        CachedAddresses(List<Address> addresses, long fetchedAt) {
+            this.addresses = addresses;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+}
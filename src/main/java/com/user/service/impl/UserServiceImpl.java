@@ -1,11 +1,15 @@
 package com.user.service.impl;
 
+import com.user.cache.UserProfileCache;
 import com.user.exceptions.AuthenticationException;
 import com.user.exceptions.BusinessException;
 import com.user.exceptions.ResourceNotFoundException;
+import com.user.exceptions.ServiceUnavailableException;
+import com.user.exceptions.ValidationException;
+import com.user.models.request.RefreshTokenRequest;
 import com.user.models.request.SignInRequest;
-import com.user.models.response.APIResponseEntity;
 import com.user.models.response.AuthenticationResponse;
+import com.user.models.response.UserProfileResponse;
 import com.user.pojo.Address;
 import com.user.pojo.Credentials;
 import com.user.pojo.Role;
@@ -13,25 +17,40 @@ import com.user.pojo.User;
 import com.user.repository.CredentialsRepository;
 import com.user.repository.UserRepository;
 import com.user.security.JwtService;
-import com.user.service.IAddressClient;
+import com.user.security.RefreshTokenService;
+import com.user.security.TokenRevocationIndex;
 import com.user.service.IUserService;
-import com.user.token.Token;
+import com.user.token.TokenIds;
+import com.user.token.TokenLedgerWriter;
 import com.user.token.TokenRepository;
-import com.user.token.TokenType;
 import com.user.utils.Constants;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.annotation.Observed;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.Date;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Slf4j
+@Observed(name = "user.service")
 @Service
 @Transactional
 public class UserServiceImpl implements IUserService {
@@ -46,18 +65,44 @@ public class UserServiceImpl implements IUserService {
 
     final private TokenRepository tokenRepository;
 
-    final private IAddressClient addressClient;
+    final private ResilientAddressClient addressClient;
 
     final private JwtService jwtService;
 
+    final private TokenLedgerWriter tokenLedgerWriter;
+
+    final private TokenRevocationIndex tokenRevocationIndex;
+
+    final private UserProfileCache userProfileCache;
+
+    final private int maxAddressBatchSize;
+
+    final private Executor profileAggregationExecutor;
+
+    final private long profileDeadline;
+
+    final private Timer loginTimer;
+
+    final private Timer refreshTimer;
+
+    final private RefreshTokenService refreshTokenService;
+
     @Autowired
     public UserServiceImpl(final UserRepository userRepo,
                            final CredentialsRepository credentialsRepo,
                            final TokenRepository tokenRepository,
                            final AuthenticationManager authenticationManager,
                            final PasswordEncoder passwordEncoder,
-                           final IAddressClient addressClient,
-                           final JwtService jwtService) {
+                           final ResilientAddressClient addressClient,
+                           final JwtService jwtService,
+                           final TokenLedgerWriter tokenLedgerWriter,
+                           final TokenRevocationIndex tokenRevocationIndex,
+                           final UserProfileCache userProfileCache,
+                           @Value("${application.address.batch.max-request-size:100}") int maxAddressBatchSize,
+                           @Qualifier("profileAggregationExecutor") final Executor profileAggregationExecutor,
+                           @Value("${application.profile.deadline:1000}") long profileDeadline,
+                           final RefreshTokenService refreshTokenService,
+                           final MeterRegistry meterRegistry) {
 
         this.userRepo = userRepo;
         this.credentialsRepo = credentialsRepo;
@@ -66,6 +111,22 @@ public class UserServiceImpl implements IUserService {
         this.passwordEncoder = passwordEncoder;
         this.addressClient = addressClient;
         this.jwtService = jwtService;
+        this.tokenLedgerWriter = tokenLedgerWriter;
+        this.tokenRevocationIndex = tokenRevocationIndex;
+        this.userProfileCache = userProfileCache;
+        this.maxAddressBatchSize = maxAddressBatchSize;
+        this.profileAggregationExecutor = profileAggregationExecutor;
+        this.profileDeadline = profileDeadline;
+        this.refreshTokenService = refreshTokenService;
+        // Same meter with a flow tag, so login and refresh cost can be compared side by side
+        this.loginTimer = Timer.builder("user.auth.tokens")
+                .description("Time to authenticate and issue a token pair")
+                .tag("flow", "login")
+                .register(meterRegistry);
+        this.refreshTimer = Timer.builder("user.auth.tokens")
+                .description("Time to authenticate and issue a token pair")
+                .tag("flow", "refresh")
+                .register(meterRegistry);
     }
 
     @Override
@@ -90,16 +151,13 @@ public class UserServiceImpl implements IUserService {
             addNewAuth(new Credentials(user.getEmail(), user.getPassword()));
 
             User savedUser = userRepo.save(user);
+            // Drop a cached "not found" for the new id
+            userProfileCache.invalidate(savedUser.getUserId());
 
-            String jwtToken = jwtService.generateToken(savedUser);
-            String refreshToken = jwtService.generateRefreshToken(savedUser);
-            revokeAllUserTokens(savedUser);
-            saveUserToken(savedUser, jwtToken);
-
-            return AuthenticationResponse.builder()
-                    .accessToken(jwtToken)
-                    .refreshToken(refreshToken)
-                    .build();
+            // A new user has no tokens to revoke
+            return refreshTokenService.issueTokens(savedUser, TokenIds.newId());
+        } catch (ServiceUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             throw new BusinessException(e.getMessage(), Constants.ERR_BUSINESS);
         }
@@ -109,39 +167,57 @@ public class UserServiceImpl implements IUserService {
     public AuthenticationResponse userSignIn(SignInRequest signInRequest)
             throws AuthenticationException, BusinessException {
 
+        final Timer.Sample sample = Timer.start();
         try {
 
-            authenticationManager.authenticate(
+            Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
                             signInRequest.getEmail(),
                             signInRequest.getPassword()
                     )
             );
 
-            User user = Optional.ofNullable(userRepo.findByEmail(signInRequest.getEmail())
-                            .orElseThrow(
-                                    () -> new AuthenticationException(
-                                            "Account does not exist. Please Signup",
-                                            Constants.ERR_AUTHENTICATION)))
-                    .get();
+            // The authenticated principal is the user loaded (or cached) by the provider, no second lookup needed
+            User user = authentication.getPrincipal() instanceof User authenticatedUser
+                    ? authenticatedUser
+                    : userRepo.findByEmail(signInRequest.getEmail())
+                    .orElseThrow(
+                            () -> new AuthenticationException(
+                                    "Account does not exist. Please Signup",
+                                    Constants.ERR_AUTHENTICATION));
 
-            String jwtToken = jwtService.generateToken(user);
-            String refreshToken = jwtService.generateRefreshToken(user);
             revokeAllUserTokens(user);
-            saveUserToken(user, jwtToken);
-            return AuthenticationResponse.builder()
-                    .accessToken(jwtToken)
-                    .refreshToken(refreshToken)
-                    .build();
+            return refreshTokenService.issueTokens(user, TokenIds.newId());
         } catch (AuthenticationException e) {
             throw new BusinessException(e.getMessage(), Constants.ERR_BUSINESS);
+        } finally {
+            sample.stop(loginTimer);
+        }
+    }
+
+    /**
+     * Rotate a refresh token, see {@link RefreshTokenService#rotate(String)}. The only database
+     * statement is the conditional update consuming the presented token by its jti, skipped if
+     * its ledger entry is still buffered.
+     */
+    @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public AuthenticationResponse userRefresh(RefreshTokenRequest request) throws BusinessException {
+
+        final Timer.Sample sample = Timer.start();
+        try {
+            return refreshTokenService.rotate(request.getRefreshToken());
+        } catch (AuthenticationException | JwtException | IllegalArgumentException e) {
+            throw new BusinessException(e.getMessage(), Constants.ERR_BUSINESS);
+        } finally {
+            sample.stop(refreshTimer);
         }
     }
 
     @Override
     public User getProfile(int id) throws BusinessException, Exception {
         try {
-            return userRepo.findById(id)
+            return userProfileCache.get(id, userRepo::findById)
                     .orElseThrow(() ->
                             new ResourceNotFoundException(
                                     "User  not found for given user Id : " + id,
@@ -156,12 +232,55 @@ public class UserServiceImpl implements IUserService {
         }
     }
 
+    /**
+     * The profile is looked up first, usually from the profile cache, so unknown ids never reach
+     * ADDRESS-SERVICE. The addresses are then fetched on the aggregation executor, if they are not
+     * back by the deadline, or ADDRESS-SERVICE fails, the profile is returned without them.
+     */
     @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public UserProfileResponse getProfileWithAddresses(int id) throws BusinessException, Exception {
+
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(profileDeadline);
+        User user = getProfile(id);
+
+        CompletableFuture<List<Address>> addresses;
+        try {
+            addresses = CompletableFuture.supplyAsync(() -> addressClient.getAddresses(id), profileAggregationExecutor);
+        } catch (RejectedExecutionException e) {
+            addresses = CompletableFuture.failedFuture(e);
+        }
+
+        try {
+            List<Address> userAddresses = addresses.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            // The profile may be a cached instance shared with other requests
+            return UserProfileResponse.builder()
+                    .user(user.toBuilder().addresses(userAddresses).build())
+                    .degraded(false)
+                    .build();
+        } catch (TimeoutException | ExecutionException e) {
+            // A lookup still waiting for a thread is skipped
+            addresses.cancel(false);
+            log.info("Returning profile without addresses for User Id: {}, {}", id,
+                    e instanceof TimeoutException ? "deadline exceeded" : e.getCause().getMessage());
+            return UserProfileResponse.builder()
+                    .user(user)
+                    .degraded(true)
+                    .build();
+        }
+    }
+
+    /**
+     * No database work happens here, so no transaction (and no pooled connection) is held during the remote call.
+     */
+    @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
     public List<Address> getAddress(Integer userId) throws BusinessException, Exception {
 
         try {
-            APIResponseEntity<List<Address>> response = addressClient.getAddresses(userId);
-            return response.getData();
+            return addressClient.getAddresses(userId);
+        } catch (ServiceUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             log.info("Exception occurred while getting User Addresses for User Id: {}", userId);
             throw new BusinessException(e.getMessage(), Constants.ERR_BUSINESS);
@@ -169,39 +288,40 @@ public class UserServiceImpl implements IUserService {
     }
 
 
-    public Token saveUserToken(User user, String jwtToken) throws BusinessException {
+    @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public Map<Integer, List<Address>> getAddresses(List<Integer> userIds) throws BusinessException, Exception {
 
+        if (userIds == null || userIds.isEmpty() || userIds.size() > maxAddressBatchSize) {
+            throw new ValidationException(
+                    "Between 1 and " + maxAddressBatchSize + " user ids are required",
+                    Constants.ERR_INVALID_DATA);
+        }
         try {
-            Token token = Token.builder()
-                    .user(user)
-                    .token(jwtToken)
-                    .tokenType(TokenType.BEARER)
-                    .expired(false)
-                    .revoked(false)
-                    .build();
-            return tokenRepository.save(token);
+            return addressClient.getAddresses(userIds);
+        } catch (ServiceUnavailableException e) {
+            throw e;
         } catch (Exception e) {
+            log.info("Exception occurred while getting Addresses for {} users", userIds.size());
             throw new BusinessException(e.getMessage(), Constants.ERR_BUSINESS);
         }
     }
 
-    public List<Token> revokeAllUserTokens(User user) throws BusinessException {
+    /**
+     * Revoke every token of the user with a single bulk update.
+     *
+     * @param user User
+     * @return Number of revoked tokens in the ledger
+     * @throws BusinessException BusinessException
+     */
+    public int revokeAllUserTokens(User user) throws BusinessException {
 
         try {
-
-            List<Token> validUserTokens = tokenRepository.findAllValidTokenByUser(user.getUserId());
-
-            if (validUserTokens.isEmpty())
-                return null;
-
-            validUserTokens.forEach(token -> {
-                token.setExpired(true);
-                token.setRevoked(true);
-            });
-
-            return tokenRepository.saveAll(validUserTokens);
-//            tokenRepository.deleteAll(validUserTokens);
-
+            tokenLedgerWriter.revokePending(user.getUserId());
+            int revoked = tokenRepository.revokeAllByUser(user.getUserId());
+            tokenRevocationIndex.revokeAllForUser(user.getUserId());
+            log.debug("Revoked {} tokens for User Id: {}", revoked, user.getUserId());
+            return revoked;
         } catch (Exception e) {
             throw new BusinessException(e.getMessage(), Constants.ERR_BUSINESS);
         }
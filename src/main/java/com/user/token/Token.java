@@ -7,36 +7,59 @@ import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.Temporal;
+import jakarta.persistence.TemporalType;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Date;
+
+/**
+ * Ledger entry of an issued token. Only the token id ("jti") is stored, never the JWT itself.
+ * Access and refresh tokens issued from one login share a family id, so a reused refresh
+ * token can revoke everything rotated from it.
+ */
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Table(name = "token_ledger", indexes = {
+        @Index(name = "idx_token_ledger_user_revoked_expired", columnList = "user_id, revoked, expired"),
+        @Index(name = "idx_token_ledger_family", columnList = "family")
+})
 public class Token {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
     public Integer id;
 
-    @Column(unique = true)
-    public String token;
+    @Column(name = "jti", columnDefinition = "BINARY(16)", nullable = false, unique = true)
+    public byte[] jti;
 
     @Enumerated(EnumType.STRING)
     public TokenType tokenType = TokenType.BEARER;
 
+    @Column(name = "family", columnDefinition = "BINARY(16)")
+    public byte[] family;
+
     public boolean revoked;
 
     public boolean expired;
 
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "expires_at", nullable = false)
+    public Date expiresAt;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     public User user;
-}
\ No newline at end of file
+}
@@ -0,0 +1,30 @@
+package com.user.token;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Token ids ("jti") are random UUIDs, stored in the ledger as fixed-width 16 byte values.
+ */
+public final class TokenIds {
+
+    private TokenIds() {
+    }
+
+    public static String newId() {
+        return UUID.randomUUID().toString();
+    }
+
+    public static byte[] toBytes(String jti) {
+        UUID uuid = UUID.fromString(jti);
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    public static String fromBytes(byte[] jti) {
+        ByteBuffer buffer = ByteBuffer.wrap(jti);
+        return new UUID(buffer.getLong(), buffer.getLong()).toString();
+    }
+}
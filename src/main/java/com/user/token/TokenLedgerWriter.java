@@ -0,0 +1,374 @@
+package com.user.token;
+
+import com.user.exceptions.ServiceUnavailableException;
+import com.user.utils.Constants;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Buffers new ledger entries and inserts them in JDBC batches off the request thread.
+ * <p>
+ * Entries are flushed every flush interval, or as soon as a full batch is waiting. Each batch is
+ * inserted in one transaction. A batch that fails is kept aside and retried once per retry interval,
+ * new entries wait until it is written. A batch rejected for its data, or still failing after the
+ * maximum attempts, is split to write its good entries, the entries failing on their own are logged
+ * and dropped. The buffer is bounded, when it is full new entries are rejected with a
+ * {@link ServiceUnavailableException} instead of growing without limit while the database is down.
+ * <p>
+ * Revocations for a user also mark that user's entries which are still buffered, so a token issued
+ * just before a revocation is never persisted as valid. They hold the flush lock, so an entry is
+ * always either still buffered or already committed when they look for it.
+ */
+@Slf4j
+@Component
+public class TokenLedgerWriter {
+
+    private static final String INSERT_TOKEN = """
+            insert into token_ledger (jti, token_type, revoked, expired, expires_at, user_id, family)\s
+            values (?, ?, ?, ?, ?, ?, ?)\s
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionOperations transactionOperations;
+
+    private final int batchSize;
+
+    private final int capacity;
+
+    private final int maxAttempts;
+
+    private final long retryInterval;
+
+    private final Deque<Token> pending = new ConcurrentLinkedDeque<>();
+
+    /** Entries of a failed batch waiting for the next attempt, guarded by the flush lock */
+    private List<Token> retryBatch = new ArrayList<>();
+
+    private int retryAttempts;
+
+    private long retryAt;
+
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    /**
+     * A lock rather than synchronized, so a virtual thread blocked on the database
+     * inside flush does not pin its carrier thread.
+     */
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "token-ledger-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Counter insertedCounter;
+
+    private final Counter droppedCounter;
+
+    @Autowired
+    public TokenLedgerWriter(final JdbcTemplate jdbcTemplate,
+                             final TransactionOperations transactionOperations,
+                             final MeterRegistry meterRegistry,
+                             @Value("${application.security.jwt.ledger.batch-size:200}") int batchSize,
+                             @Value("${application.security.jwt.ledger.flush-interval:100}") long flushInterval,
+                             @Value("${application.security.jwt.ledger.capacity:20000}") int capacity,
+                             @Value("${application.security.jwt.ledger.max-attempts:10}") int maxAttempts,
+                             @Value("${application.security.jwt.ledger.retry-interval:1000}") long retryInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionOperations = transactionOperations;
+        this.batchSize = batchSize;
+        this.capacity = capacity;
+        this.maxAttempts = maxAttempts;
+        this.retryInterval = retryInterval;
+        this.insertedCounter = Counter.builder("token.ledger.inserted")
+                .description("Token ledger entries written to the database")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("token.ledger.dropped")
+                .description("Token ledger entries dropped because they could not be written")
+                .register(meterRegistry);
+        Gauge.builder("token.ledger.pending", pendingCount, AtomicInteger::get)
+                .description("Token ledger entries waiting to be written")
+                .register(meterRegistry);
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Buffer the entries, all of them or none.
+     *
+     * @param tokens Ledger entries
+     * @throws ServiceUnavailableException if the buffer is full
+     */
+    public void enqueue(Token... tokens) throws ServiceUnavailableException {
+        if (pendingCount.addAndGet(tokens.length) > capacity) {
+            pendingCount.addAndGet(-tokens.length);
+            throw new ServiceUnavailableException("Server is busy, please retry", Constants.ERR_SERVICE_UNAVAILABLE);
+        }
+        pending.addAll(Arrays.asList(tokens));
+        if (pendingCount.get() >= batchSize && flushScheduled.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                flushScheduled.set(false);
+                flushQuietly();
+            });
+        }
+    }
+
+    /**
+     * Mark the buffered entries of the user as revoked.
+     *
+     * @param userId User IDENTIFIER
+     */
+    public void revokePending(Integer userId) {
+        flushLock.lock();
+        try {
+            for (Token token : buffered()) {
+                if (token.getUser() != null && Objects.equals(token.getUser().getUserId(), userId)) {
+                    token.setRevoked(true);
+                    token.setExpired(true);
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Mark the buffered entry with the given token id as revoked.
+     *
+     * @param jti Token id
+     */
+    public void revokePending(byte[] jti) {
+        flushLock.lock();
+        try {
+            for (Token token : buffered()) {
+                if (Arrays.equals(token.getJti(), jti)) {
+                    token.setRevoked(true);
+                    token.setExpired(true);
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Revoke the buffered entry with the given token id if it is still valid. Holds the flush lock,
+     * so an entry is either still buffered or already committed, never in between.
+     *
+     * @param jti Token id
+     * @return true if a valid buffered entry was revoked by this call
+     */
+    public boolean consumePending(byte[] jti) {
+        flushLock.lock();
+        try {
+            for (Token token : buffered()) {
+                if (Arrays.equals(token.getJti(), jti)) {
+                    if (token.isRevoked()) {
+                        return false;
+                    }
+                    token.setRevoked(true);
+                    token.setExpired(true);
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Mark the buffered entries of the token family as revoked.
+     *
+     * @param family Token family id
+     * @return Buffered entries of the family
+     */
+    public List<Token> revokePendingFamily(byte[] family) {
+        flushLock.lock();
+        try {
+            List<Token> revoked = new ArrayList<>();
+            for (Token token : buffered()) {
+                if (Arrays.equals(token.getFamily(), family)) {
+                    token.setRevoked(true);
+                    token.setExpired(true);
+                    revoked.add(token);
+                }
+            }
+            return revoked;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public int pendingCount() {
+        return pendingCount.get();
+    }
+
+    /**
+     * Write every buffered entry. Runs on the flusher thread, or on shutdown.
+     * Nothing is written before the retry interval of a failed batch has passed.
+     */
+    public void flush() {
+        flush(false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        flush(true);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Exception occurred while writing token ledger entries: {}", e.getMessage());
+        }
+    }
+
+    private void flush(boolean force) {
+        flushLock.lock();
+        try {
+            if (!retryBatch.isEmpty()) {
+                if (!force && System.currentTimeMillis() < retryAt) {
+                    return;
+                }
+                List<Token> batch = retryBatch;
+                retryBatch = new ArrayList<>();
+                if (!writeOrKeep(batch, ++retryAttempts >= maxAttempts)) {
+                    return;
+                }
+            }
+            List<Token> batch = new ArrayList<>(batchSize);
+            Token token;
+            while ((token = pending.pollFirst()) != null) {
+                batch.add(token);
+                if (batch.size() == batchSize || pending.isEmpty()) {
+                    retryAttempts = 1;
+                    if (!writeOrKeep(batch, false)) {
+                        return;
+                    }
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Write the batch, or keep the entries that could not be written for the next attempt.
+     *
+     * @param batch Entries taken from the buffer
+     * @param split Whether to split the batch on any failure, not only when it is rejected for its data
+     * @return true if nothing is left to retry
+     */
+    private boolean writeOrKeep(List<Token> batch, boolean split) {
+        try {
+            writeInTransaction(batch);
+            pendingCount.addAndGet(-batch.size());
+            return true;
+        } catch (RuntimeException e) {
+            if (split || e instanceof DataIntegrityViolationException) {
+                writeSplitting(batch, split);
+            } else {
+                retryBatch.addAll(batch);
+            }
+            if (retryBatch.isEmpty()) {
+                return true;
+            }
+            retryAt = System.currentTimeMillis() + retryInterval;
+            log.warn("Writing {} token ledger entries failed, attempt {} of {}: {}",
+                    retryBatch.size(), retryAttempts, maxAttempts, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Write the halves of the batch in their own transactions, down to single entries. A single entry
+     * rejected for its data, or failing on the last attempt, is dropped, others are kept for a retry.
+     */
+    private void writeSplitting(List<Token> batch, boolean lastAttempt) {
+        if (batch.size() > 1) {
+            int half = batch.size() / 2;
+            for (List<Token> part : List.of(batch.subList(0, half), batch.subList(half, batch.size()))) {
+                try {
+                    writeInTransaction(part);
+                    pendingCount.addAndGet(-part.size());
+                } catch (RuntimeException e) {
+                    writeSplitting(part, lastAttempt);
+                }
+            }
+            return;
+        }
+        Token entry = batch.get(0);
+        try {
+            writeInTransaction(batch);
+            pendingCount.decrementAndGet();
+        } catch (RuntimeException e) {
+            if (lastAttempt || e instanceof DataIntegrityViolationException) {
+                pendingCount.decrementAndGet();
+                droppedCounter.increment();
+                log.error("Dropped token ledger entry jti: {}, user: {}, type: {}, expires at: {}: {}",
+                        TokenIds.fromBytes(entry.getJti()), entry.getUser().getUserId(), entry.getTokenType(),
+                        entry.getExpiresAt(), e.getMessage());
+            } else {
+                retryBatch.add(entry);
+            }
+        }
+    }
+
+    private Iterable<Token> buffered() {
+        return () -> Stream.concat(retryBatch.stream(), pending.stream()).iterator();
+    }
+
+    private void writeInTransaction(List<Token> batch) {
+        transactionOperations.executeWithoutResult(status -> write(batch));
+    }
+
+    private void write(List<Token> batch) {
+        jdbcTemplate.batchUpdate(INSERT_TOKEN, batch, batch.size(), (ps, entry) -> {
+            ps.setBytes(1, entry.getJti());
+            ps.setString(2, entry.getTokenType().name());
+            ps.setBoolean(3, entry.isRevoked());
+            ps.setBoolean(4, entry.isExpired());
+            ps.setTimestamp(5, new Timestamp(entry.getExpiresAt().getTime()));
+            ps.setInt(6, entry.getUser().getUserId());
+            if (entry.getFamily() == null) {
+                ps.setNull(7, Types.BINARY);
+            } else {
+                ps.setBytes(7, entry.getFamily());
+            }
+        });
+        insertedCounter.increment(batch.size());
+        log.debug("Wrote {} token ledger entries", batch.size());
+    }
+}
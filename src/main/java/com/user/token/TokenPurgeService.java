@@ -0,0 +1,102 @@
+package com.user.token;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Deletes token ledger entries that expired longer than the retention period ago.
+ * <p>
+ * Rows are deleted in bounded chunks, paginated by id, each chunk in its own short
+ * transaction with a pause in between, so the purge never holds long locks on the ledger.
+ */
+@Slf4j
+@Service
+public class TokenPurgeService {
+
+    private final TokenRepository tokenRepository;
+
+    private final long retention;
+
+    private final int chunkSize;
+
+    private final long pause;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final DistributionSummary purgedRows;
+
+    @Autowired
+    public TokenPurgeService(final TokenRepository tokenRepository,
+                             final MeterRegistry meterRegistry,
+                             @Value("${application.security.jwt.purge.retention:86400000}") long retention,
+                             @Value("${application.security.jwt.purge.chunk-size:1000}") int chunkSize,
+                             @Value("${application.security.jwt.purge.pause:50}") long pause) {
+        this.tokenRepository = tokenRepository;
+        this.retention = retention;
+        this.chunkSize = chunkSize;
+        this.pause = pause;
+        this.purgedRows = DistributionSummary.builder("token.purge.rows")
+                .description("Token ledger rows deleted per purge run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${application.security.jwt.purge.cron:0 0 3 * * *}")
+    public void scheduledPurge() {
+        purge();
+    }
+
+    /**
+     * Purge expired token ledger entries.
+     *
+     * @return Number of deleted rows, 0 if a purge is already running
+     */
+    public int purge() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Token purge is already running");
+            return 0;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            Date cutoff = new Date(start - retention);
+            int purged = 0;
+            Integer lastId = 0;
+            while (true) {
+                List<Integer> ids = tokenRepository.findExpiredTokenIds(lastId, cutoff, PageRequest.of(0, chunkSize));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                tokenRepository.deleteAllByIdInBatch(ids);
+                purged += ids.size();
+                lastId = ids.get(ids.size() - 1);
+                if (ids.size() < chunkSize || !pause()) {
+                    break;
+                }
+            }
+            purgedRows.record(purged);
+            log.info("Purged {} expired tokens in {} (ms)", purged, System.currentTimeMillis() - start);
+            return purged;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pause);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -1,24 +1,93 @@
 package com.user.token;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TokenRepository extends JpaRepository<Token, Integer> {
 
-    String FIND_ALL_VALID_TOKEN_BY_USER = """
-      select t from Token t inner join User u\s
-      on t.user.id = u.id\s
-      where u.id = :id and (t.expired = false or t.revoked = false)\s
+    String REVOKE_ALL_BY_USER = """
+      update Token t set t.revoked = true, t.expired = true\s
+      where t.user.userId = :userId and t.revoked = false and t.expired = false\s
       """;
 
-    @Query(value = FIND_ALL_VALID_TOKEN_BY_USER)
-    List<Token> findAllValidTokenByUser(@Param("id") Integer id);
+    String REVOKE_BY_JTI = """
+      update Token t set t.revoked = true, t.expired = true\s
+      where t.jti = :jti\s
+      """;
+
+    String CONSUME_BY_JTI = """
+      update Token t set t.revoked = true, t.expired = true\s
+      where t.jti = :jti and t.revoked = false\s
+      """;
+
+    String REVOKE_FAMILY = """
+      update Token t set t.revoked = true, t.expired = true\s
+      where t.family = :family and t.revoked = false\s
+      """;
+
+    String FIND_LIVE_BY_FAMILY = """
+      select t from Token t\s
+      where t.family = :family and t.expiresAt > :now\s
+      """;
+
+    String FIND_EXPIRED_TOKEN_IDS = """
+      select t.id from Token t\s
+      where t.id > :afterId and t.expiresAt < :cutoff\s
+      order by t.id\s
+      """;
+
+    Optional<Token> findByJti(byte[] jti);
+
+    /**
+     * Revoke every valid token of the user, served by the (user_id, revoked, expired) index.
+     *
+     * @param userId User IDENTIFIER
+     * @return Number of revoked tokens
+     */
+    @Transactional
+    @Modifying
+    @Query(value = REVOKE_ALL_BY_USER)
+    int revokeAllByUser(@Param("userId") Integer userId);
+
+    @Transactional
+    @Modifying
+    @Query(value = REVOKE_BY_JTI)
+    int revokeByJti(@Param("jti") byte[] jti);
+
+    /**
+     * Revoke the token only if it is still valid, served by the unique jti index.
+     * Concurrent callers race on the row, exactly one of them sees an update.
+     *
+     * @param jti Token id
+     * @return 1 if the token was consumed by this call, 0 if it was already revoked or is unknown
+     */
+    @Transactional
+    @Modifying
+    @Query(value = CONSUME_BY_JTI)
+    int consumeByJti(@Param("jti") byte[] jti);
+
+    @Transactional
+    @Modifying
+    @Query(value = REVOKE_FAMILY)
+    int revokeFamily(@Param("family") byte[] family);
+
+    @Query(value = FIND_LIVE_BY_FAMILY)
+    List<Token> findLiveByFamily(@Param("family") byte[] family, @Param("now") Date now);
+
+    @Query(value = FIND_EXPIRED_TOKEN_IDS)
+    List<Integer> findExpiredTokenIds(@Param("afterId") Integer afterId, @Param("cutoff") Date cutoff, Pageable pageable);
 
-    Optional<Token> findByToken(String token);
-}
\ No newline at end of file
+    @Query(value = "select t from Token t where t.revoked = true and t.expiresAt > :now")
+    Stream<Token> streamRevokedLiveTokens(@Param("now") Date now);
+}
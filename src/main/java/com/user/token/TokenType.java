@@ -1,5 +1,6 @@
 package com.user.token;
 
 public enum TokenType {
-    BEARER
+    BEARER,
+    REFRESH
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.user.tracing;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the most recent finished spans in memory, for tests and local troubleshooting.
+ * Once the capacity is reached the oldest spans are dropped.
+ */
+public class InMemorySpanExporter implements SpanExporter {
+
+    private final int capacity;
+
+    private final ConcurrentLinkedDeque<SpanData> spans = new ConcurrentLinkedDeque<>();
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    public InMemorySpanExporter(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> finishedSpans) {
+        for (SpanData span : finishedSpans) {
+            spans.addLast(span);
+            if (size.incrementAndGet() > capacity && spans.pollFirst() != null) {
+                size.decrementAndGet();
+            }
+        }
+        return CompletableResultCode.ofSuccess();
+    }
+
+    /**
+     * @return Finished spans, oldest first
+     */
+    public List<SpanData> getFinishedSpans() {
+        return new ArrayList<>(spans);
+    }
+
+    public void reset() {
+        spans.clear();
+        size.set(0);
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        // Spans stay readable after the tracer provider is closed
+        return CompletableResultCode.ofSuccess();
+    }
+}
@@ -0,0 +1,22 @@
+package com.user.tracing;
+
+import com.user.utils.Constants;
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.MDC;
+
+/**
+ * Sends the reqId of the current request to downstream services. The trace context
+ * itself is propagated by the Feign observation capability.
+ */
+public class RequestIdPropagationInterceptor implements RequestInterceptor {
+
+    @Override
+    public void apply(RequestTemplate template) {
+        String reqId = MDC.get(Constants.REQ_ID_KEY);
+        if (StringUtils.isNotEmpty(reqId) && !template.headers().containsKey(Constants.REQ_ID_KEY)) {
+            template.header(Constants.REQ_ID_KEY, reqId);
+        }
+    }
+}
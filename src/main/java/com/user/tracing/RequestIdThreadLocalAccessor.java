@@ -0,0 +1,32 @@
+package com.user.tracing;
+
+import com.user.utils.Constants;
+import io.micrometer.context.ThreadLocalAccessor;
+import org.slf4j.MDC;
+
+/**
+ * Carries the reqId MDC value across thread hops, next to the trace context,
+ * for executors wrapped with the context-propagation library.
+ */
+public class RequestIdThreadLocalAccessor implements ThreadLocalAccessor<String> {
+
+    @Override
+    public Object key() {
+        return Constants.REQ_ID_KEY;
+    }
+
+    @Override
+    public String getValue() {
+        return MDC.get(Constants.REQ_ID_KEY);
+    }
+
+    @Override
+    public void setValue(String value) {
+        MDC.put(Constants.REQ_ID_KEY, value);
+    }
+
+    @Override
+    public void setValue() {
+        MDC.remove(Constants.REQ_ID_KEY);
+    }
+}
@@ -23,6 +23,7 @@ public interface Constants {
     String ERR_EXCEPTION = "ERR-EX-505";
     String ERR_BUSINESS = "ERR-BS-5001";
     String ERR_UNEXPECTED = "ERR-BS-5001";
+    String ERR_SERVICE_UNAVAILABLE = "ERR-SU-503";
 
     // Security
     public static final String TOKEN_PREFIX = "Bearer ";
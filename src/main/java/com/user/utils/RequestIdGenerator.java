@@ -0,0 +1,46 @@
+package com.user.utils;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates request ids of the form "REQ" + 16 hex digits of time and sequence + 8 hex digits of node id.
+ * <p>
+ * The upper bits hold the epoch millis and the lower 20 bits a sequence within that milli, advanced with a
+ * single CAS, so ids from one instance are strictly increasing and sort by time. The node id is drawn from
+ * {@link SecureRandom} once per JVM, keeping ids from different instances apart without seeding per request.
+ */
+public final class RequestIdGenerator {
+
+    private static final String PREFIX = "REQ";
+
+    private static final int SEQUENCE_BITS = 20;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final int NODE_ID = new SecureRandom().nextInt();
+
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private RequestIdGenerator() {
+    }
+
+    public static String nextId() {
+        final long now = System.currentTimeMillis() << SEQUENCE_BITS;
+        // Sequence overflow or a clock step back borrows from the next milli, order is kept either way
+        final long value = LAST.updateAndGet(last -> Math.max(now, last + 1));
+
+        final char[] id = new char[PREFIX.length() + 16 + 8];
+        PREFIX.getChars(0, PREFIX.length(), id, 0);
+        writeHex(id, PREFIX.length(), value, 16);
+        writeHex(id, PREFIX.length() + 16, NODE_ID, 8);
+        return new String(id);
+    }
+
+    private static void writeHex(char[] target, int offset, long value, int digits) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            target[i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.user.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class TwoTierCacheTests {
+
+    private TwoTierCache<Integer, String> node1;
+
+    private TwoTierCache<Integer, String> node2;
+
+    @BeforeEach
+    void setUp() {
+        InMemoryDistributedCache distributedCache = new InMemoryDistributedCache(1_000);
+        node1 = newNode(distributedCache).create("profiles", 1_000, value -> Duration.ofMinutes(5));
+        node2 = newNode(distributedCache).create("profiles", 1_000, value -> Duration.ofMinutes(5));
+    }
+
+    @Test
+    void valueLoadedOnOneNodeIsServedToTheOthers() {
+        AtomicInteger loads = new AtomicInteger();
+
+        node1.get(1, id -> "v" + loads.incrementAndGet());
+        String value = node2.get(1, id -> fail("Value must be served from the distributed cache"));
+
+        assertEquals("v1", value);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void invalidationEvictsTheNearCacheOfEveryNode() {
+        node1.get(1, id -> "old");
+        node2.get(1, id -> "old");
+
+        node1.invalidate(1);
+
+        assertEquals("new", node2.get(1, id -> "new"));
+    }
+
+    @Test
+    void valueLoadedBeforeAConcurrentInvalidationIsNotPublished() throws Exception {
+        Thread update = new Thread(() -> node2.invalidate(1));
+
+        String loaded = node1.get(1, id -> {
+            // The value is read, then another node updates it before the load completes
+            update.start();
+            sleep(200);
+            return "stale";
+        });
+        update.join(5_000);
+
+        assertEquals("stale", loaded);
+        assertEquals("fresh", node2.get(1, id -> "fresh"));
+        assertEquals("fresh", node1.get(1, id -> "fresh"));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static TwoTierCacheManager newNode(InMemoryDistributedCache distributedCache) {
+        return new TwoTierCacheManager(distributedCache, new SimpleMeterRegistry(), 30_000L);
+    }
+}
@@ -0,0 +1,77 @@
+package com.user.config;
+
+import com.user.models.response.APIResponseEntity;
+import com.user.utils.Constants;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class APIResponseInterceptorTests {
+
+    private final APIResponseInterceptor interceptor = new APIResponseInterceptor();
+
+    @Test
+    void onlyApiResponseReturnTypesAreEnriched() throws Exception {
+        assertTrue(interceptor.supports(returnType("apiResponse"), MappingJackson2HttpMessageConverter.class));
+        assertTrue(interceptor.supports(returnType("plainApiResponse"), MappingJackson2HttpMessageConverter.class));
+        assertFalse(interceptor.supports(returnType("bytes"), MappingJackson2HttpMessageConverter.class));
+        assertFalse(interceptor.supports(returnType("wildcard"), MappingJackson2HttpMessageConverter.class));
+    }
+
+    @Test
+    void reqIdIsStampedFromTheRequestAttribute() throws Exception {
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/user/address/list/1");
+        servletRequest.setAttribute(APIRequestInterceptor.REQ_ID_ATTRIBUTE, "REQ1");
+        APIResponseEntity<List<String>> success = new APIResponseEntity<>(Constants.STATUS_SUCCESS, Constants.SUCCESS_CODE, List.of());
+        APIResponseEntity<List<String>> error = new APIResponseEntity<>(Constants.STATUS_ERROR, "failed", Constants.ERR_BUSINESS, null);
+
+        write(success, servletRequest);
+        write(error, servletRequest);
+
+        assertEquals("REQ1", success.getReqId());
+        assertNull(error.getReqId());
+    }
+
+    private void write(APIResponseEntity<?> body, MockHttpServletRequest servletRequest) throws Exception {
+        interceptor.beforeBodyWrite(body, returnType("apiResponse"), MediaType.APPLICATION_JSON,
+                MappingJackson2HttpMessageConverter.class, new ServletServerHttpRequest(servletRequest),
+                new ServletServerHttpResponse(new MockHttpServletResponse()));
+    }
+
+    private static MethodParameter returnType(String method) throws NoSuchMethodException {
+        return new MethodParameter(Handlers.class.getDeclaredMethod(method), -1);
+    }
+
+    @SuppressWarnings("unused")
+    private static class Handlers {
+
+        ResponseEntity<APIResponseEntity<List<String>>> apiResponse() {
+            return null;
+        }
+
+        APIResponseEntity<String> plainApiResponse() {
+            return null;
+        }
+
+        ResponseEntity<byte[]> bytes() {
+            return null;
+        }
+
+        ResponseEntity<?> wildcard() {
+            return null;
+        }
+    }
+}
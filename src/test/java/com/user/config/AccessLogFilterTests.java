@@ -0,0 +1,61 @@
+package com.user.config;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccessLogFilterTests {
+
+    private final Logger accessLog = (Logger) LoggerFactory.getLogger("ACCESS_LOG");
+
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    void setUp() {
+        appender.start();
+        accessLog.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        accessLog.detachAppender(appender);
+    }
+
+    @Test
+    void successfulRequestsAreSampledOut() throws Exception {
+        AccessLogFilter filter = new AccessLogFilter(0.0, 60_000);
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/user/1"), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertTrue(appender.list.isEmpty());
+    }
+
+    @Test
+    void failedRequestIsAlwaysLoggedWithSecretsRedacted() throws Exception {
+        AccessLogFilter filter = new AccessLogFilter(0.0, 60_000);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/auth/validate-jwt");
+        request.setQueryString("token=eyJhbGciOi&claims=true");
+        request.addHeader("reqId", "REQ1");
+        request.setAttribute(AccessLogFilter.ERROR_ATTRIBUTE, "AuthenticationException");
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertEquals(1, appender.list.size());
+        String record = appender.list.get(0).getFormattedMessage();
+        assertTrue(record.contains("reqId=REQ1"));
+        assertTrue(record.contains("query=token=***&claims=true"));
+        assertTrue(record.contains("error=AuthenticationException"));
+        assertFalse(record.contains("eyJhbGciOi"));
+    }
+}
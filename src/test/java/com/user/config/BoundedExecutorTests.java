@@ -0,0 +1,78 @@
+package com.user.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedExecutorTests {
+
+    /** Stands in for a virtual-thread-per-task executor */
+    private final Executor threadPerTask = task -> new Thread(task).start();
+
+    @Test
+    void tasksBeyondTheQueueCapacityAreRejectedWithoutBlocking() throws Exception {
+        BoundedExecutor executor = new BoundedExecutor(threadPerTask, 1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        Runnable task = () -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            finished.countDown();
+        };
+
+        executor.execute(task);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        executor.execute(task);
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(task));
+
+        release.countDown();
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertEquals(1, maxRunning.get());
+    }
+
+    @Test
+    void slotsAreFreedWhenTasksComplete() {
+        BoundedExecutor executor = new BoundedExecutor(Runnable::run, 1, 0);
+        AtomicInteger completed = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            executor.execute(completed::incrementAndGet);
+        }
+
+        assertEquals(3, completed.get());
+    }
+
+    @Test
+    void slotIsFreedWhenTheTaskCannotBeStarted() {
+        AtomicInteger attempts = new AtomicInteger();
+        BoundedExecutor executor = new BoundedExecutor(task -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new RejectedExecutionException("Shut down");
+            }
+            task.run();
+        }, 1, 0);
+        AtomicInteger completed = new AtomicInteger();
+
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(completed::incrementAndGet));
+        executor.execute(completed::incrementAndGet);
+
+        assertEquals(1, completed.get());
+    }
+}
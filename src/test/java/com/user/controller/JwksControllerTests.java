@@ -0,0 +1,107 @@
+package com.user.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.user.cache.InMemoryDistributedCache;
+import com.user.cache.TwoTierCacheManager;
+import com.user.security.JwksProvider;
+import com.user.security.JwtService;
+import com.user.security.TokenRevocationIndex;
+import com.user.security.VerifiedTokenCache;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.security.KeyPair;
+import java.security.interfaces.ECPublicKey;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class JwksControllerTests {
+
+    private static final String JWKS = "/.well-known/jwks.json";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final KeyPair keyPair = Keys.keyPairFor(SignatureAlgorithm.ES256);
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        JwtService jwtService = newJwtService();
+        jwtService.rotateSigningKey("e1", keyPair, SignatureAlgorithm.ES256);
+        mockMvc = MockMvcBuilders.standaloneSetup(new JwksController(new JwksProvider(jwtService, objectMapper), 300_000))
+                .build();
+    }
+
+    @Test
+    void keySetIsServedWithETagAndCacheControl() throws Exception {
+        mockMvc.perform(get(JWKS))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=300, public"));
+    }
+
+    @Test
+    void currentClientCopyIsAnsweredWithNotModified() throws Exception {
+        String etag = mockMvc.perform(get(JWKS)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get(JWKS).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void ecKeyIsPublishedAsAnEcJwk() throws Exception {
+        MvcResult result = mockMvc.perform(get(JWKS)).andExpect(status().isOk()).andReturn();
+        JsonNode jwk = objectMapper.readTree(result.getResponse().getContentAsByteArray()).get("keys").get(0);
+        ECPublicKey publicKey = (ECPublicKey) keyPair.getPublic();
+
+        assertEquals("EC", jwk.get("kty").asText());
+        assertEquals("P-256", jwk.get("crv").asText());
+        assertEquals("ES256", jwk.get("alg").asText());
+        assertEquals("e1", jwk.get("kid").asText());
+        // Coordinates are unsigned and left padded to the 32 byte field size
+        assertArrayEquals(unsigned(publicKey.getW().getAffineX().toByteArray()), Decoders.BASE64URL.decode(jwk.get("x").asText()));
+        assertArrayEquals(unsigned(publicKey.getW().getAffineY().toByteArray()), Decoders.BASE64URL.decode(jwk.get("y").asText()));
+    }
+
+    private static byte[] unsigned(byte[] value) {
+        byte[] bytes = new byte[32];
+        int length = Math.min(value.length, 32);
+        System.arraycopy(value, value.length - length, bytes, 32 - length, length);
+        return bytes;
+    }
+
+    private static JwtService newJwtService() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TokenRevocationIndex revocationIndex = new TokenRevocationIndex(meterRegistry, 120_000L,
+                new TwoTierCacheManager(new InMemoryDistributedCache(1_000), meterRegistry, 30_000L));
+        JwtService service = new JwtService(new VerifiedTokenCache(1_000, 60_000, meterRegistry),
+                revocationIndex, meterRegistry);
+        ReflectionTestUtils.setField(service, "algorithm", "HS256");
+        ReflectionTestUtils.setField(service, "secretKey", "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970");
+        ReflectionTestUtils.setField(service, "keyId", "k1");
+        ReflectionTestUtils.setField(service, "previousSecretKey", "");
+        ReflectionTestUtils.setField(service, "previousKeyId", "");
+        ReflectionTestUtils.setField(service, "jwtExpiration", 60_000L);
+        ReflectionTestUtils.setField(service, "refreshExpiration", 120_000L);
+        ReflectionTestUtils.invokeMethod(service, "init");
+        return service;
+    }
+}
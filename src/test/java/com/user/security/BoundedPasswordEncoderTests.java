@@ -0,0 +1,96 @@
+package com.user.security;
+
+import com.user.config.GlobalExceptionHandler;
+import com.user.exceptions.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedPasswordEncoderTests {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    /** One thread and one queue slot, like the password hashing executor at its limit */
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1), task -> new Thread(task, "password-hashing-test"),
+            new ThreadPoolExecutor.AbortPolicy());
+
+    /** Threads the hashes ran on */
+    private final List<String> hashingThreads = new CopyOnWriteArrayList<>();
+
+    /** Stands in for BCrypt, each hash takes until {@link #release} opens */
+    private final PasswordEncoder slowEncoder = new PasswordEncoder() {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            await();
+            return "{hashed}" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            await();
+            return encodedPassword.equals("{hashed}" + rawPassword);
+        }
+
+        private void await() {
+            hashingThreads.add(Thread.currentThread().getName());
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    };
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void hashingIsRejectedWith503WhenTheQueueIsFull() throws Exception {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(slowEncoder, executor, 5_000, new SimpleMeterRegistry());
+        // Occupy the thread and the queue slot
+        executor.execute(() -> slowEncoder.encode("busy"));
+        executor.execute(() -> slowEncoder.encode("queued"));
+
+        ServiceUnavailableException e = assertThrows(ServiceUnavailableException.class,
+                () -> encoder.matches("secret", "{hashed}secret"));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, new GlobalExceptionHandler()
+                .handleAllException(e, new ServletWebRequest(new MockHttpServletRequest())).getStatusCode());
+    }
+
+    @Test
+    void hashingIsAbandonedAfterTheTimeout() {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(slowEncoder, executor, 100, new SimpleMeterRegistry());
+
+        assertThrows(ServiceUnavailableException.class, () -> encoder.encode("secret"));
+    }
+
+    @Test
+    void hashingRunsOnTheExecutor() {
+        release.countDown();
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(slowEncoder, executor, 5_000, new SimpleMeterRegistry());
+
+        assertTrue(encoder.matches("secret", encoder.encode("secret")));
+        assertEquals(List.of("password-hashing-test", "password-hashing-test"), hashingThreads);
+    }
+}
@@ -0,0 +1,138 @@
+package com.user.security;
+
+import com.user.cache.InMemoryDistributedCache;
+import com.user.cache.TwoTierCacheManager;
+import com.user.cache.UserProfileCache;
+import com.user.config.ApplicationConfig;
+import com.user.pojo.Role;
+import com.user.pojo.User;
+import com.user.repository.CredentialsRepository;
+import com.user.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CaffeineUserCacheTests {
+
+    private static final String EMAIL = "john@example.com";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicInteger userLoads = new AtomicInteger();
+
+    private final AtomicInteger passwordChecks = new AtomicInteger();
+
+    /** Stored user, the repository stub hands out copies like a database would */
+    private User storedUser;
+
+    private CaffeineUserCache userCache;
+
+    private UserDetailsService userDetailsService;
+
+    private DaoAuthenticationProvider authProvider;
+
+    @BeforeEach
+    void setUp() {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+        storedUser = User.builder().userId(1).email(EMAIL).password(bcrypt.encode("secret")).role(Role.USER).build();
+        userCache = new CaffeineUserCache(100, 60_000, meterRegistry);
+        userDetailsService = new ApplicationConfig(newUserRepository(), null, null, userCache, meterRegistry)
+                .userDetailsService();
+
+        authProvider = new DaoAuthenticationProvider();
+        authProvider.setUserDetailsService(userDetailsService);
+        authProvider.setPasswordEncoder(new PasswordEncoder() {
+
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return bcrypt.encode(rawPassword);
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                passwordChecks.incrementAndGet();
+                return bcrypt.matches(rawPassword, encodedPassword);
+            }
+        });
+    }
+
+    @Test
+    void repeatedLoginsAreServedFromTheCache() {
+        authProvider.authenticate(new UsernamePasswordAuthenticationToken(EMAIL, "secret"));
+        authProvider.authenticate(new UsernamePasswordAuthenticationToken(EMAIL, "secret"));
+
+        assertEquals(1, userLoads.get());
+        assertEquals(2, passwordChecks.get());
+    }
+
+    @Test
+    void wrongPasswordForACachedUserIsCheckedOnceWithoutReload() {
+        authProvider.authenticate(new UsernamePasswordAuthenticationToken(EMAIL, "secret"));
+        passwordChecks.set(0);
+
+        assertThrows(BadCredentialsException.class,
+                () -> authProvider.authenticate(new UsernamePasswordAuthenticationToken(EMAIL, "wrong")));
+
+        assertEquals(1, userLoads.get());
+        assertEquals(1, passwordChecks.get());
+    }
+
+    @Test
+    void passwordChangeEvictsTheCachedUser() {
+        userDetailsService.loadUserByUsername(EMAIL);
+        PasswordUpgradeService passwordUpgradeService = new PasswordUpgradeService(newUserRepository(),
+                newCredentialsRepository(), userCache, new UserProfileCache(100, 60_000, 30_000,
+                new TwoTierCacheManager(new InMemoryDistributedCache(100), meterRegistry, 30_000L)));
+
+        passwordUpgradeService.updatePassword(userDetailsService.loadUserByUsername(EMAIL), "rehashed");
+        userLoads.set(0);
+
+        assertEquals("rehashed", userDetailsService.loadUserByUsername(EMAIL).getPassword());
+        assertEquals(1, userLoads.get());
+    }
+
+    @Test
+    void unknownUsersAreNotCached() {
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("jane@example.com"));
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("jane@example.com"));
+
+        assertEquals(2, userLoads.get());
+    }
+
+    private UserRepository newUserRepository() {
+        return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findByEmail" -> {
+                        userLoads.incrementAndGet();
+                        yield EMAIL.equals(args[0]) ? Optional.of(storedUser.toBuilder().build()) : Optional.empty();
+                    }
+                    case "save" -> {
+                        storedUser = ((User) args[0]).toBuilder().build();
+                        yield args[0];
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static CredentialsRepository newCredentialsRepository() {
+        return (CredentialsRepository) Proxy.newProxyInstance(CredentialsRepository.class.getClassLoader(),
+                new Class<?>[]{CredentialsRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findByEmail" -> null;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,288 @@
+package com.user.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.user.cache.InMemoryDistributedCache;
+import com.user.cache.TwoTierCacheManager;
+import com.user.exceptions.AuthenticationException;
+import com.user.pojo.Role;
+import com.user.pojo.User;
+import com.user.token.Token;
+import com.user.token.TokenIds;
+import com.user.token.TokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.security.KeyPair;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class JwtServiceTests {
+
+    static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+    private static final String ROTATED_SECRET = "5A7134743777217A25432A462D4A614E645267556B58703273357638792F423F";
+
+    private JwtService jwtService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = newJwtService(SECRET, "k1");
+        user = User.builder().userId(1).email("john@example.com").role(Role.USER).build();
+    }
+
+    @Test
+    void generatedTokenIsVerified() {
+        String token = jwtService.generateToken(user);
+
+        assertDoesNotThrow(() -> jwtService.validateToken(token));
+        assertEquals(user.getEmail(), jwtService.extractUsername(token));
+    }
+
+    @Test
+    void claimsAreReadFromSingleParse() {
+        String token = jwtService.generateToken(Map.of("role", "USER"), user);
+
+        ParsedToken parsedToken = jwtService.validateAndGetClaims(token);
+
+        assertEquals(user.getEmail(), parsedToken.getSubject());
+        assertEquals("USER", parsedToken.getClaim("role", String.class));
+        assertFalse(parsedToken.isExpired());
+        assertTrue(jwtService.isTokenValid(token, user));
+    }
+
+    @Test
+    void accessTokenCarriesUserIdAndRole() {
+        ParsedToken parsedToken = jwtService.validateAndGetClaims(jwtService.generateToken(user));
+
+        assertEquals(user.getUserId(), parsedToken.getClaim(JwtService.CLAIM_USER_ID, Integer.class));
+        assertEquals(Role.USER.name(), parsedToken.getClaim(JwtService.CLAIM_ROLE, String.class));
+    }
+
+    @Test
+    void refreshTokenCarriesFamilyAndIsNotAnAccessToken() {
+        String refreshToken = jwtService.issueRefreshToken(user, "family-1").getToken();
+
+        ParsedToken parsedToken = jwtService.validateRefreshToken(refreshToken);
+
+        assertEquals("family-1", parsedToken.getClaim(JwtService.CLAIM_FAMILY, String.class));
+        assertEquals(user.getUserId(), parsedToken.getClaim(JwtService.CLAIM_USER_ID, Integer.class));
+        assertThrows(AuthenticationException.class, () -> jwtService.validateAndGetClaims(refreshToken));
+        assertEquals(TokenVerdict.MALFORMED, jwtService.verify(refreshToken).getVerdict());
+        assertThrows(AuthenticationException.class, () -> jwtService.validateRefreshToken(jwtService.generateToken(user)));
+    }
+
+    @Test
+    void verifiedTokensAreCachedUntilInvalidated() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(1_000, 60_000, new SimpleMeterRegistry());
+        String token = jwtService.generateToken(user);
+
+        ParsedToken first = cache.get("digest", () -> jwtService.validateAndGetClaims(token));
+        ParsedToken second = cache.get("digest", () -> fail("Cached token must not be verified again"));
+        cache.invalidate("digest");
+
+        assertSame(first, second);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void revokedTokenIsRejected() {
+        String token = jwtService.generateToken(user);
+        jwtService.validateAndGetClaims(token);
+
+        assertTrue(jwtService.revokeToken(token).isPresent());
+        assertThrows(AuthenticationException.class, () -> jwtService.validateAndGetClaims(token));
+    }
+
+    @Test
+    void revokingAllUserTokensRejectsTokensIssuedEarlier() {
+        TokenRevocationIndex index = newRevocationIndex(new InMemoryDistributedCache(1_000));
+        Claims claims = Jwts.claims().setId("jti-1").setIssuedAt(new Date(System.currentTimeMillis() - 5_000));
+        claims.put(JwtService.CLAIM_USER_ID, user.getUserId());
+        ParsedToken earlierToken = new ParsedToken(claims);
+
+        assertFalse(index.isRevoked(earlierToken));
+        index.revokeAllForUser(user.getUserId());
+
+        assertTrue(index.isRevoked(earlierToken));
+    }
+
+    @Test
+    void revokingAllUserTokensRejectsTokensIssuedEarlierInTheSameSecond() {
+        TokenRevocationIndex index = newRevocationIndex(new InMemoryDistributedCache(1_000));
+        JwtService service = newJwtService(SECRET, "k1", index);
+        String earlier = service.issueToken(user).getToken();
+        service.validateAndGetClaims(earlier);
+
+        index.revokeAllForUser(user.getUserId());
+        String later = service.issueToken(user).getToken();
+
+        assertThrows(AuthenticationException.class, () -> service.validateAndGetClaims(earlier));
+        assertDoesNotThrow(() -> service.validateAndGetClaims(later));
+    }
+
+    @Test
+    void revocationsReachEveryNode() {
+        InMemoryDistributedCache distributedCache = new InMemoryDistributedCache(1_000);
+        TokenRevocationIndex node1 = newRevocationIndex(distributedCache);
+        TokenRevocationIndex node2 = newRevocationIndex(distributedCache);
+        ParsedToken parsedToken = new ParsedToken(Jwts.claims().setId("jti-2").setIssuedAt(new Date()));
+
+        node1.revoke("jti-2", System.currentTimeMillis() + 60_000);
+
+        assertTrue(node2.isRevoked(parsedToken));
+    }
+
+    @Test
+    void revocationWithALostMessageIsPickedUpByTheReconcile() {
+        AtomicInteger distributedReads = new AtomicInteger();
+        InMemoryDistributedCache distributedCache = new InMemoryDistributedCache(1_000) {
+
+            @Override
+            public Object get(String region, Object key) {
+                distributedReads.incrementAndGet();
+                return super.get(region, key);
+            }
+        };
+        TokenRevocationIndex node = newRevocationIndex(distributedCache);
+        String jti = TokenIds.newId();
+        ParsedToken parsedToken = new ParsedToken(Jwts.claims().setId(jti).setIssuedAt(new Date()));
+        Date expiresAt = new Date(System.currentTimeMillis() + 60_000);
+
+        // Revoked on another node, the invalidation message never arrives
+        distributedCache.put(TokenRevocationIndex.REVOKED_TOKENS, jti, expiresAt.getTime(), Duration.ofMinutes(1));
+        assertFalse(node.isRevoked(parsedToken));
+        assertEquals(0, distributedReads.get());
+
+        Token revokedEntry = Token.builder().jti(TokenIds.toBytes(jti)).revoked(true).expiresAt(expiresAt).build();
+        new TokenRevocationIndexLoader(newTokenRepository(List.of(revokedEntry)), node).load();
+
+        assertTrue(node.isRevoked(parsedToken));
+    }
+
+    @Test
+    void verifyReportsAVerdictPerToken() {
+        String valid = jwtService.generateToken(user);
+        String revoked = jwtService.generateToken(user);
+        jwtService.revokeToken(revoked);
+        String badSignature = newJwtService(ROTATED_SECRET, "k1").generateToken(user);
+        JwtService expiringService = newJwtService(SECRET, "k1");
+        ReflectionTestUtils.setField(expiringService, "jwtExpiration", -1_000L);
+        String expired = expiringService.generateToken(user);
+
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            tokens.addAll(List.of(valid, revoked, badSignature, expired, "not-a-jwt"));
+        }
+        List<TokenVerification> verifications = new BatchTokenVerifier(jwtService, Runnable::run).verifyAll(tokens);
+
+        assertEquals(tokens.size(), verifications.size());
+        assertEquals(List.of(TokenVerdict.VALID, TokenVerdict.REVOKED, TokenVerdict.BAD_SIGNATURE, TokenVerdict.EXPIRED, TokenVerdict.MALFORMED),
+                verifications.subList(45, 50).stream().map(TokenVerification::getVerdict).toList());
+        assertEquals(user.getEmail(), verifications.get(3).getSubject());
+    }
+
+    @Test
+    void tokensSignedBeforeRotationStayValid() {
+        String oldToken = jwtService.generateToken(user);
+
+        jwtService.rotateSigningKey("k2", ROTATED_SECRET);
+        String newToken = jwtService.generateToken(user);
+
+        assertDoesNotThrow(() -> jwtService.validateToken(oldToken));
+        assertDoesNotThrow(() -> jwtService.validateToken(newToken));
+    }
+
+    @Test
+    void asymmetricKeyIsPublishedAndKeepsAcceptingOldHmacTokens() throws Exception {
+        String hmacToken = jwtService.generateToken(user);
+
+        jwtService.rotateSigningKey("r1", Keys.keyPairFor(SignatureAlgorithm.RS256), SignatureAlgorithm.RS256);
+        String rsaToken = jwtService.generateToken(user);
+        JsonWebKeySet keySet = new JwksProvider(jwtService, new ObjectMapper()).getKeySet();
+        JsonNode jwk = new ObjectMapper().readTree(keySet.getBody()).get("keys").get(0);
+
+        assertEquals(user.getEmail(), jwtService.validateAndGetClaims(rsaToken).getSubject());
+        assertDoesNotThrow(() -> jwtService.validateToken(hmacToken));
+        assertEquals("r1", jwk.get("kid").asText());
+        assertEquals("RS256", jwk.get("alg").asText());
+    }
+
+    @Test
+    void hmacTokenForAnAsymmetricKeyIdIsRejected() {
+        KeyPair keyPair = Keys.keyPairFor(SignatureAlgorithm.ES256);
+        jwtService.rotateSigningKey("e1", keyPair, SignatureAlgorithm.ES256);
+        String forged = Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, "e1")
+                .setSubject(user.getEmail())
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertThrows(SignatureException.class, () -> jwtService.validateToken(forged));
+    }
+
+    @Test
+    void tokenWithUnknownKeyIdIsRejected() {
+        JwtService otherService = newJwtService(SECRET, "k9");
+        String token = otherService.generateToken(user);
+
+        assertThrows(SignatureException.class, () -> jwtService.validateToken(token));
+    }
+
+    static JwtService newJwtService(String secret, String keyId) {
+        return newJwtService(secret, keyId, newRevocationIndex(new InMemoryDistributedCache(1_000)));
+    }
+
+    static JwtService newJwtService(String secret, String keyId, TokenRevocationIndex revocationIndex) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JwtService service = new JwtService(new VerifiedTokenCache(1_000, 60_000, meterRegistry),
+                revocationIndex, meterRegistry);
+        ReflectionTestUtils.setField(service, "algorithm", "HS256");
+        ReflectionTestUtils.setField(service, "secretKey", secret);
+        ReflectionTestUtils.setField(service, "keyId", keyId);
+        ReflectionTestUtils.setField(service, "previousSecretKey", "");
+        ReflectionTestUtils.setField(service, "previousKeyId", "");
+        ReflectionTestUtils.setField(service, "jwtExpiration", 60_000L);
+        ReflectionTestUtils.setField(service, "refreshExpiration", 120_000L);
+        service.init();
+        return service;
+    }
+
+    static TokenRevocationIndex newRevocationIndex(InMemoryDistributedCache distributedCache) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        return new TokenRevocationIndex(meterRegistry, 120_000L,
+                new TwoTierCacheManager(distributedCache, meterRegistry, 30_000L));
+    }
+
+    /** Token ledger holding the given revoked entries */
+    private static TokenRepository newTokenRepository(List<Token> revokedTokens) {
+        return (TokenRepository) Proxy.newProxyInstance(TokenRepository.class.getClassLoader(),
+                new Class<?>[]{TokenRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "streamRevokedLiveTokens" -> revokedTokens.stream();
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,167 @@
+package com.user.security;
+
+import com.user.cache.InMemoryDistributedCache;
+import com.user.exceptions.AuthenticationException;
+import com.user.models.response.AuthenticationResponse;
+import com.user.pojo.Role;
+import com.user.pojo.User;
+import com.user.token.Token;
+import com.user.token.TokenIds;
+import com.user.token.TokenLedgerWriter;
+import com.user.token.TokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RefreshTokenServiceTests {
+
+    /** Rows of the token ledger, written by the ledger writer and updated by the repository stub */
+    private final List<Token> ledger = new CopyOnWriteArrayList<>();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private TokenRevocationIndex revocationIndex;
+
+    private JwtService jwtService;
+
+    private TokenLedgerWriter ledgerWriter;
+
+    private RefreshTokenService refreshTokenService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        revocationIndex = JwtServiceTests.newRevocationIndex(new InMemoryDistributedCache(1_000));
+        jwtService = JwtServiceTests.newJwtService(JwtServiceTests.SECRET, "k1", revocationIndex);
+        ledgerWriter = new TokenLedgerWriter(new LedgerJdbcTemplate(), TransactionOperations.withoutTransaction(),
+                meterRegistry, 100, 60_000L, 10_000, 10, 0L);
+        refreshTokenService = new RefreshTokenService(jwtService, ledgerWriter, newTokenRepository(),
+                revocationIndex, meterRegistry);
+        user = User.builder().userId(1).email("john@example.com").role(Role.USER).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ledgerWriter.shutdown();
+    }
+
+    @Test
+    void rotationIssuesANewPairAndConsumesThePresentedToken() throws AuthenticationException {
+        AuthenticationResponse login = refreshTokenService.issueTokens(user, TokenIds.newId());
+        ledgerWriter.flush();
+
+        AuthenticationResponse rotated = refreshTokenService.rotate(login.getRefreshToken());
+
+        assertNotEquals(login.getRefreshToken(), rotated.getRefreshToken());
+        ParsedToken accessToken = jwtService.validateAndGetClaims(rotated.getAccessToken());
+        assertEquals(1, accessToken.getClaim(JwtService.CLAIM_USER_ID, Integer.class));
+        assertEquals("john@example.com", accessToken.getSubject());
+        assertEquals(1L, ledger.stream().filter(Token::isRevoked).count());
+        assertEquals(2, ledgerWriter.pendingCount());
+        assertEquals(0.0, reuseCount());
+    }
+
+    @Test
+    void bufferedRefreshTokenIsConsumedBeforeItIsWritten() throws AuthenticationException {
+        AuthenticationResponse login = refreshTokenService.issueTokens(user, TokenIds.newId());
+
+        refreshTokenService.rotate(login.getRefreshToken());
+        ledgerWriter.flush();
+
+        assertEquals(1L, ledger.stream().filter(Token::isRevoked).count());
+        assertThrows(AuthenticationException.class, () -> refreshTokenService.rotate(login.getRefreshToken()));
+    }
+
+    @Test
+    void reusedRefreshTokenRevokesTheWholeFamily() throws AuthenticationException {
+        AuthenticationResponse login = refreshTokenService.issueTokens(user, TokenIds.newId());
+        ledgerWriter.flush();
+        AuthenticationResponse rotated = refreshTokenService.rotate(login.getRefreshToken());
+        AuthenticationResponse otherLogin = refreshTokenService.issueTokens(user, TokenIds.newId());
+
+        assertThrows(AuthenticationException.class, () -> refreshTokenService.rotate(login.getRefreshToken()));
+
+        // Persisted and still buffered tokens of the family are revoked, the other family is untouched
+        assertThrows(AuthenticationException.class, () -> jwtService.validateAndGetClaims(login.getAccessToken()));
+        assertThrows(AuthenticationException.class, () -> jwtService.validateAndGetClaims(rotated.getAccessToken()));
+        assertThrows(AuthenticationException.class, () -> refreshTokenService.rotate(rotated.getRefreshToken()));
+        assertDoesNotThrow(() -> jwtService.validateAndGetClaims(otherLogin.getAccessToken()));
+        assertEquals(2.0, reuseCount());
+    }
+
+    @Test
+    void tokenRevokedByALaterLoginIsNotCountedAsReuse() throws Exception {
+        AuthenticationResponse login = refreshTokenService.issueTokens(user, TokenIds.newId());
+        ledgerWriter.flush();
+        revocationIndex.revokeAllForUser(user.getUserId());
+
+        assertThrows(AuthenticationException.class, () -> refreshTokenService.rotate(login.getRefreshToken()));
+
+        assertEquals(0.0, reuseCount());
+        assertEquals(0L, ledger.stream().filter(Token::isRevoked).count());
+    }
+
+    private double reuseCount() {
+        return meterRegistry.counter("user.auth.refresh.reuse").count();
+    }
+
+    private TokenRepository newTokenRepository() {
+        return (TokenRepository) Proxy.newProxyInstance(TokenRepository.class.getClassLoader(),
+                new Class<?>[]{TokenRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "consumeByJti" -> {
+                        byte[] jti = (byte[]) args[0];
+                        int consumed = 0;
+                        for (Token token : ledger) {
+                            if (Arrays.equals(token.getJti(), jti) && !token.isRevoked()) {
+                                token.setRevoked(true);
+                                consumed++;
+                            }
+                        }
+                        yield consumed;
+                    }
+                    case "findLiveByFamily" -> ledger.stream()
+                            .filter(token -> Arrays.equals(token.getFamily(), (byte[]) args[0]))
+                            .filter(token -> token.getExpiresAt().after((Date) args[1]))
+                            .toList();
+                    case "revokeFamily" -> {
+                        int revoked = 0;
+                        for (Token token : ledger) {
+                            if (Arrays.equals(token.getFamily(), (byte[]) args[0]) && !token.isRevoked()) {
+                                token.setRevoked(true);
+                                revoked++;
+                            }
+                        }
+                        yield revoked;
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private class LedgerJdbcTemplate extends JdbcTemplate {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                                       ParameterizedPreparedStatementSetter<T> setter) {
+            ledger.addAll((Collection<Token>) batchArgs);
+            return new int[0][];
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.user.security;
+
+import com.user.pojo.Role;
+import com.user.pojo.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenValidationFastPathFilterTests {
+
+    private JwtService jwtService;
+
+    private TokenValidationFastPathFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = JwtServiceTests.newJwtService(JwtServiceTests.SECRET, "k1");
+        filter = new TokenValidationFastPathFilter(jwtService);
+    }
+
+    @Test
+    void validTokenIsAnsweredWithoutReachingTheChain() throws Exception {
+        User user = User.builder().userId(7).email("jane@example.com").role(Role.ADMIN).build();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", TokenValidationFastPathFilter.PATH);
+        request.setParameter("token", jwtService.generateToken(user));
+        request.setParameter("claims", "true");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        assertEquals(200, response.getStatus());
+        assertTrue(response.getContentAsString().startsWith("{\"valid\":true,\"sub\":\"jane@example.com\",\"userId\":7,\"role\":\"ADMIN\""));
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void malformedTokenIsUnauthorized() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", TokenValidationFastPathFilter.PATH);
+        request.addHeader("Authorization", "Bearer not-a-jwt");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertEquals(401, response.getStatus());
+        assertEquals("{\"valid\":false}", response.getContentAsString());
+    }
+}
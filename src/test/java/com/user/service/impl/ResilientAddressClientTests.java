@@ -0,0 +1,309 @@
+package com.user.service.impl;
+
+import com.user.cache.InMemoryDistributedCache;
+import com.user.cache.TwoTierCacheManager;
+import com.user.exceptions.ServiceUnavailableException;
+import com.user.models.response.APIResponseEntity;
+import com.user.pojo.Address;
+import com.user.service.IAddressClient;
+import feign.FeignException;
+import feign.Request;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JCircuitBreakerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResilientAddressClientTests {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    private final ExecutorService loaderExecutor = Executors.newCachedThreadPool();
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private final AtomicBoolean failing = new AtomicBoolean();
+
+    private final AtomicBoolean notFound = new AtomicBoolean();
+
+    private final AtomicInteger batchCalls = new AtomicInteger();
+
+    /**
+     * Stands in for ADDRESS-SERVICE, answering after 200 ms, failing while {@link #failing} is set
+     * or answering 404 while {@link #notFound} is set.
+     */
+    private final IAddressClient stubAddressService = new IAddressClient() {
+
+        @Override
+        public APIResponseEntity<List<Address>> getAddresses(int userId) {
+            calls.incrementAndGet();
+            respond();
+            return new APIResponseEntity<>("Success", "200", List.of(address(userId)));
+        }
+
+        @Override
+        public APIResponseEntity<Map<Integer, List<Address>>> getAddressesBatch(List<Integer> userIds) {
+            batchCalls.incrementAndGet();
+            respond();
+            Map<Integer, List<Address>> addresses = new HashMap<>();
+            userIds.forEach(userId -> addresses.put(userId, List.of(address(userId))));
+            return new APIResponseEntity<>("Success", "200", addresses);
+        }
+
+        private void respond() {
+            if (notFound.get()) {
+                throw new FeignException.NotFound("User not found", Request.create(Request.HttpMethod.GET,
+                        "/address", Map.of(), null, StandardCharsets.UTF_8, null), null, Map.of());
+            }
+            if (failing.get()) {
+                throw new IllegalStateException("Connection refused");
+            }
+            sleep(200);
+        }
+    };
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        loaderExecutor.shutdownNow();
+    }
+
+    @Test
+    void concurrentMissesShareOneCall() throws Exception {
+        ResilientAddressClient client = newClient(30_000);
+        List<Future<List<Address>>> results = new ArrayList<>();
+
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> client.getAddresses(1)));
+        }
+        for (Future<List<Address>> result : results) {
+            assertEquals("Pune", result.get().get(0).getCity());
+        }
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void concurrentLookupsForDifferentUsersShareOneBulkCall() throws Exception {
+        ResilientAddressClient client = newClient(30_000, true);
+        List<Future<List<Address>>> results = new ArrayList<>();
+
+        for (int userId = 1; userId <= 5; userId++) {
+            int id = userId;
+            results.add(executor.submit(() -> client.getAddresses(id)));
+        }
+        for (int userId = 1; userId <= 5; userId++) {
+            assertEquals(userId, results.get(userId - 1).get().get(0).getUserId());
+        }
+
+        assertEquals(1, batchCalls.get());
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    void multiUserLookupOnlyLoadsMisses() {
+        ResilientAddressClient client = newClient(30_000);
+        client.getAddresses(1);
+
+        Map<Integer, List<Address>> addresses = client.getAddresses(List.of(1, 2, 3));
+
+        assertEquals(List.of(1, 2, 3), new ArrayList<>(addresses.keySet()));
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void multiUserLookupSharesCallsAlreadyInFlight() throws Exception {
+        ResilientAddressClient client = newClient(30_000);
+        Future<List<Address>> single = executor.submit(() -> client.getAddresses(1));
+        sleep(50);
+
+        Map<Integer, List<Address>> addresses = client.getAddresses(List.of(1, 2));
+
+        assertEquals(1, addresses.get(1).get(0).getUserId());
+        assertEquals(2, addresses.get(2).get(0).getUserId());
+        assertEquals(1, single.get().get(0).getUserId());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void staleAddressesAreServedWhileTheServiceFails() {
+        ResilientAddressClient client = newClient(0);
+        client.getAddresses(1);
+
+        failing.set(true);
+
+        assertEquals("Pune", client.getAddresses(1).get(0).getCity());
+    }
+
+    @Test
+    void failureWithoutCachedAddressesIsReportedAsUnavailable() {
+        ResilientAddressClient client = newClient(30_000);
+        failing.set(true);
+
+        assertThrows(ServiceUnavailableException.class, () -> client.getAddresses(1));
+    }
+
+    @Test
+    void slowCallIsAbandonedAfterTheTimeLimit() {
+        TimeLimiterRegistry timeLimiterRegistry = TimeLimiterRegistry.of(TimeLimiterConfig.custom()
+                .timeoutDuration(Duration.ofMillis(50))
+                .build());
+        ResilientAddressClient client = newClient(30_000, false, CircuitBreakerRegistry.ofDefaults(), timeLimiterRegistry);
+
+        long start = System.currentTimeMillis();
+        assertThrows(ServiceUnavailableException.class, () -> client.getAddresses(1));
+
+        assertTrue(System.currentTimeMillis() - start < 200);
+    }
+
+    @Test
+    void openCircuitFailsFastWithoutCallingTheService() {
+        CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(2)
+                .minimumNumberOfCalls(2)
+                .failureRateThreshold(50)
+                .waitDurationInOpenState(Duration.ofMinutes(1))
+                .build());
+        ResilientAddressClient client = newClient(30_000, false, circuitBreakerRegistry, TimeLimiterRegistry.ofDefaults());
+        failing.set(true);
+        assertThrows(ServiceUnavailableException.class, () -> client.getAddresses(1));
+        assertThrows(ServiceUnavailableException.class, () -> client.getAddresses(2));
+        failing.set(false);
+
+        assertThrows(ServiceUnavailableException.class, () -> client.getAddresses(3));
+
+        assertEquals(2, calls.get());
+        assertEquals(CircuitBreaker.State.OPEN,
+                circuitBreakerRegistry.circuitBreaker(ResilientAddressClient.CIRCUIT_BREAKER).getState());
+    }
+
+    @Test
+    void bulkTimeoutLeavesSingleLookupsClosedAndCancelsQueuedCalls() {
+        CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(1)
+                .minimumNumberOfCalls(1)
+                .waitDurationInOpenState(Duration.ofMinutes(1))
+                .build());
+        TimeLimiterRegistry timeLimiterRegistry = TimeLimiterRegistry.of(TimeLimiterConfig.custom()
+                .timeoutDuration(Duration.ofMillis(300))
+                .build());
+        // One fan-out thread, the ten single calls queue up behind each other
+        ExecutorService fanOutExecutor = Executors.newSingleThreadExecutor();
+        try {
+            ResilientAddressClient client = newClient(30_000, false, circuitBreakerRegistry, timeLimiterRegistry, fanOutExecutor);
+
+            assertThrows(ServiceUnavailableException.class, () -> client.getAddresses(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10)));
+            sleep(500);
+
+            assertEquals(2, calls.get());
+            assertEquals(CircuitBreaker.State.OPEN,
+                    circuitBreakerRegistry.circuitBreaker(ResilientAddressClient.BULK_CIRCUIT_BREAKER).getState());
+            assertEquals(CircuitBreaker.State.CLOSED,
+                    circuitBreakerRegistry.circuitBreaker(ResilientAddressClient.CIRCUIT_BREAKER).getState());
+            assertEquals(11, client.getAddresses(11).get(0).getUserId());
+        } finally {
+            fanOutExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    void fullFanOutQueueIsNotCountedAsAFailure() {
+        CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(1)
+                .minimumNumberOfCalls(1)
+                .ignoreExceptions(RejectedExecutionException.class)
+                .build());
+        Executor saturated = task -> {
+            throw new RejectedExecutionException("Queue is full");
+        };
+        ResilientAddressClient client = newClient(30_000, false, circuitBreakerRegistry, TimeLimiterRegistry.ofDefaults(), saturated);
+
+        assertThrows(ServiceUnavailableException.class, () -> client.getAddresses(1));
+        assertThrows(ServiceUnavailableException.class, () -> client.getAddresses(List.of(1, 2)));
+
+        assertEquals(CircuitBreaker.State.CLOSED,
+                circuitBreakerRegistry.circuitBreaker(ResilientAddressClient.CIRCUIT_BREAKER).getState());
+        assertEquals(CircuitBreaker.State.CLOSED,
+                circuitBreakerRegistry.circuitBreaker(ResilientAddressClient.BULK_CIRCUIT_BREAKER).getState());
+    }
+
+    @Test
+    void clientErrorIsRethrownAndNotCountedAsAFailure() {
+        CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(1)
+                .minimumNumberOfCalls(1)
+                .ignoreExceptions(FeignException.FeignClientException.class)
+                .build());
+        ResilientAddressClient client = newClient(30_000, false, circuitBreakerRegistry, TimeLimiterRegistry.ofDefaults());
+        notFound.set(true);
+
+        assertThrows(FeignException.NotFound.class, () -> client.getAddresses(1));
+        assertThrows(FeignException.NotFound.class, () -> client.getAddresses(List.of(1, 2)));
+
+        assertEquals(CircuitBreaker.State.CLOSED,
+                circuitBreakerRegistry.circuitBreaker(ResilientAddressClient.CIRCUIT_BREAKER).getState());
+        assertEquals(CircuitBreaker.State.CLOSED,
+                circuitBreakerRegistry.circuitBreaker(ResilientAddressClient.BULK_CIRCUIT_BREAKER).getState());
+    }
+
+    private ResilientAddressClient newClient(long ttl) {
+        return newClient(ttl, false);
+    }
+
+    private ResilientAddressClient newClient(long ttl, boolean batchEnabled) {
+        return newClient(ttl, batchEnabled, CircuitBreakerRegistry.ofDefaults(), TimeLimiterRegistry.ofDefaults());
+    }
+
+    private ResilientAddressClient newClient(long ttl, boolean batchEnabled, CircuitBreakerRegistry circuitBreakerRegistry,
+                                             TimeLimiterRegistry timeLimiterRegistry) {
+        return newClient(ttl, batchEnabled, circuitBreakerRegistry, timeLimiterRegistry, loaderExecutor);
+    }
+
+    private ResilientAddressClient newClient(long ttl, boolean batchEnabled, CircuitBreakerRegistry circuitBreakerRegistry,
+                                             TimeLimiterRegistry timeLimiterRegistry, Executor fanOutExecutor) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        Resilience4JCircuitBreakerFactory circuitBreakerFactory = new Resilience4JCircuitBreakerFactory(
+                circuitBreakerRegistry, timeLimiterRegistry, null);
+        TwoTierCacheManager cacheManager = new TwoTierCacheManager(new InMemoryDistributedCache(1_000), meterRegistry, 30_000L);
+        AddressBatchLoader addressLoader = new AddressBatchLoader(stubAddressService, fanOutExecutor, batchEnabled, 50, 100);
+        return new ResilientAddressClient(addressLoader, circuitBreakerFactory, cacheManager, loaderExecutor,
+                1_000, ttl, 60_000);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Address address(int userId) {
+        Address address = new Address();
+        address.setUserId(userId);
+        address.setCity("Pune");
+        return address;
+    }
+}
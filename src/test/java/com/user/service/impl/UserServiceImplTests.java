@@ -0,0 +1,152 @@
+package com.user.service.impl;
+
+import com.user.cache.InMemoryDistributedCache;
+import com.user.cache.TwoTierCacheManager;
+import com.user.cache.UserProfileCache;
+import com.user.exceptions.BusinessException;
+import com.user.models.response.APIResponseEntity;
+import com.user.models.response.UserProfileResponse;
+import com.user.pojo.Address;
+import com.user.pojo.User;
+import com.user.repository.UserRepository;
+import com.user.service.IAddressClient;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JCircuitBreakerFactory;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserServiceImplTests {
+
+    private static final int UNKNOWN_USER_ID = 404;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private final AtomicLong addressDelay = new AtomicLong();
+
+    private final AtomicBoolean failing = new AtomicBoolean();
+
+    private final AtomicInteger addressCalls = new AtomicInteger();
+
+    /**
+     * Stands in for ADDRESS-SERVICE, answering after {@link #addressDelay} or failing while {@link #failing} is set.
+     */
+    private final IAddressClient stubAddressService = new IAddressClient() {
+
+        @Override
+        public APIResponseEntity<List<Address>> getAddresses(int userId) {
+            addressCalls.incrementAndGet();
+            if (failing.get()) {
+                throw new IllegalStateException("Connection refused");
+            }
+            try {
+                Thread.sleep(addressDelay.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            Address address = new Address();
+            address.setUserId(userId);
+            address.setCity("Pune");
+            return new APIResponseEntity<>("Success", "200", List.of(address));
+        }
+
+        @Override
+        public APIResponseEntity<Map<Integer, List<Address>>> getAddressesBatch(List<Integer> userIds) {
+            throw new UnsupportedOperationException();
+        }
+    };
+
+    private AddressBatchLoader addressLoader;
+
+    @AfterEach
+    void tearDown() {
+        addressLoader.shutdown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void addressesReturnedWithinTheDeadlineAreIncluded() throws Exception {
+        addressDelay.set(20);
+        UserServiceImpl userService = newUserService(1_000);
+
+        UserProfileResponse profile = userService.getProfileWithAddresses(1);
+
+        assertFalse(profile.isDegraded());
+        assertEquals("Pune", profile.getUser().getAddresses().get(0).getCity());
+    }
+
+    @Test
+    void profileIsDegradedWhenTheAddressesMissTheDeadline() throws Exception {
+        addressDelay.set(500);
+        UserServiceImpl userService = newUserService(100);
+
+        long start = System.currentTimeMillis();
+        UserProfileResponse profile = userService.getProfileWithAddresses(1);
+
+        assertTrue(profile.isDegraded());
+        assertNull(profile.getUser().getAddresses());
+        assertEquals("john@example.com", profile.getUser().getEmail());
+        assertTrue(System.currentTimeMillis() - start < 400);
+    }
+
+    @Test
+    void profileIsDegradedWhenTheAddressServiceFails() throws Exception {
+        failing.set(true);
+        UserServiceImpl userService = newUserService(1_000);
+
+        UserProfileResponse profile = userService.getProfileWithAddresses(1);
+
+        assertTrue(profile.isDegraded());
+        assertNull(profile.getUser().getAddresses());
+    }
+
+    @Test
+    void unknownUserIsRejectedWithoutLookingUpAddresses() {
+        UserServiceImpl userService = newUserService(1_000);
+
+        assertThrows(BusinessException.class, () -> userService.getProfileWithAddresses(UNKNOWN_USER_ID));
+
+        assertEquals(0, addressCalls.get());
+    }
+
+    private UserServiceImpl newUserService(long profileDeadline) {
+        TwoTierCacheManager cacheManager = new TwoTierCacheManager(new InMemoryDistributedCache(100), meterRegistry, 30_000L);
+        addressLoader = new AddressBatchLoader(stubAddressService, executor, false, 50, 100);
+        ResilientAddressClient addressClient = new ResilientAddressClient(addressLoader,
+                new Resilience4JCircuitBreakerFactory(CircuitBreakerRegistry.ofDefaults(), TimeLimiterRegistry.ofDefaults(), null),
+                cacheManager, executor, 100, 30_000, 60_000);
+        UserProfileCache userProfileCache = new UserProfileCache(100, 60_000, 30_000, cacheManager);
+        // Only the collaborators of the profile lookup are needed
+        return new UserServiceImpl(newUserRepository(), null, null, null, null, addressClient, null, null, null,
+                userProfileCache, 500, executor, profileDeadline, null, meterRegistry);
+    }
+
+    private static UserRepository newUserRepository() {
+        return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findById" -> UNKNOWN_USER_ID == (Integer) args[0]
+                            ? Optional.empty()
+                            : Optional.of(User.builder().userId((Integer) args[0]).email("john@example.com").build());
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
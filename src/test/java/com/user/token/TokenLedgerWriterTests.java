@@ -0,0 +1,224 @@
+package com.user.token;
+
+import com.user.exceptions.ServiceUnavailableException;
+import com.user.pojo.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenLedgerWriterTests {
+
+    private static final int CAPACITY = 4;
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final RecordingJdbcTemplate jdbcTemplate = new RecordingJdbcTemplate();
+
+    private TokenLedgerWriter writer;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.release.countDown();
+        writer.shutdown();
+    }
+
+    @Test
+    void entriesAreWrittenInBatches() {
+        writer = newWriter(2);
+        for (int i = 0; i < 3; i++) {
+            writer.enqueue(newToken(1));
+        }
+
+        writer.flush();
+
+        assertEquals(List.of(2, 1), jdbcTemplate.batchSizes);
+        assertEquals(0, writer.pendingCount());
+    }
+
+    @Test
+    void failedBatchIsKeptAndWrittenOnTheNextFlush() {
+        writer = newWriter(10);
+        Token first = newToken(1);
+        Token second = newToken(1);
+        writer.enqueue(first, second);
+        jdbcTemplate.failures.set(1);
+
+        writer.flush();
+        assertEquals(2, writer.pendingCount());
+
+        writer.flush();
+
+        assertEquals(List.of(first, second), jdbcTemplate.written);
+        assertEquals(0, writer.pendingCount());
+    }
+
+    @Test
+    void entriesRejectedForTheirDataAreDroppedAndTheRestWritten() {
+        writer = newWriter(10);
+        Token good = newToken(1);
+        Token bad = newToken(2);
+        Token queuedBehind = newToken(3);
+        writer.enqueue(good, bad, queuedBehind);
+        jdbcTemplate.badUserId = 2;
+
+        writer.flush();
+
+        assertEquals(List.of(good, queuedBehind), jdbcTemplate.written);
+        assertEquals(0, writer.pendingCount());
+        assertEquals(1.0, meterRegistry.get("token.ledger.dropped").counter().count());
+    }
+
+    @Test
+    void batchStillFailingAfterTheMaximumAttemptsIsSplit() {
+        writer = newWriter(10);
+        Token good = newToken(1);
+        Token bad = newToken(2);
+        writer.enqueue(good, bad);
+        jdbcTemplate.unavailableUserId = 2;
+
+        // Failures that look transient are retried as a whole first
+        for (int attempt = 1; attempt < MAX_ATTEMPTS; attempt++) {
+            writer.flush();
+            assertEquals(2, writer.pendingCount());
+        }
+        writer.flush();
+
+        assertEquals(List.of(good), jdbcTemplate.written);
+        assertEquals(0, writer.pendingCount());
+        assertEquals(1.0, meterRegistry.get("token.ledger.dropped").counter().count());
+    }
+
+    @Test
+    void newEntriesAreRejectedWhenTheBufferIsFull() {
+        writer = newWriter(10);
+        writer.enqueue(newToken(1), newToken(1), newToken(1));
+
+        // All or nothing, a login never leaves half of its entries behind
+        assertThrows(ServiceUnavailableException.class, () -> writer.enqueue(newToken(1), newToken(1)));
+        assertEquals(3, writer.pendingCount());
+
+        writer.enqueue(newToken(1));
+        assertEquals(CAPACITY, writer.pendingCount());
+    }
+
+    @Test
+    void revocationWaitsForTheBatchBeingWritten() throws Exception {
+        writer = newWriter(10);
+        writer.enqueue(newToken(1));
+        jdbcTemplate.block = true;
+
+        CompletableFuture<Void> flush = CompletableFuture.runAsync(writer::flush);
+        assertTrue(jdbcTemplate.writing.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Void> revocation = CompletableFuture.runAsync(() -> writer.revokePending(1));
+
+        // The entry has left the buffer but is not committed, the revocation must not miss it
+        Thread.sleep(100);
+        assertFalse(revocation.isDone());
+
+        jdbcTemplate.release.countDown();
+        flush.get(5, TimeUnit.SECONDS);
+        revocation.get(5, TimeUnit.SECONDS);
+        assertEquals(1, jdbcTemplate.written.size());
+    }
+
+    @Test
+    void revocationMarksBufferedEntries() {
+        writer = newWriter(10);
+        Token token = newToken(1);
+        Token otherUser = newToken(2);
+        writer.enqueue(token);
+        writer.enqueue(otherUser);
+
+        writer.revokePending(1);
+        writer.flush();
+
+        assertTrue(token.isRevoked());
+        assertFalse(otherUser.isRevoked());
+    }
+
+    private TokenLedgerWriter newWriter(int batchSize) {
+        // Long flush interval, the tests flush explicitly and retry without waiting
+        return new TokenLedgerWriter(jdbcTemplate, TransactionOperations.withoutTransaction(),
+                meterRegistry, batchSize, 60_000L, CAPACITY, MAX_ATTEMPTS, 0L);
+    }
+
+    private static Token newToken(int userId) {
+        return Token.builder()
+                .jti(TokenIds.toBytes(TokenIds.newId()))
+                .tokenType(TokenType.BEARER)
+                .expiresAt(new Date(System.currentTimeMillis() + 60_000L))
+                .user(User.builder().userId(userId).build())
+                .build();
+    }
+
+    private static class RecordingJdbcTemplate extends JdbcTemplate {
+
+        private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+        private final List<Object> written = new CopyOnWriteArrayList<>();
+
+        private final AtomicInteger failures = new AtomicInteger();
+
+        private final CountDownLatch writing = new CountDownLatch(1);
+
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        private volatile boolean block;
+
+        /** Entries of this user violate a constraint */
+        private volatile int badUserId;
+
+        /** Entries of this user fail like a lost connection */
+        private volatile int unavailableUserId;
+
+        @Override
+        public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                                       ParameterizedPreparedStatementSetter<T> setter) {
+            if (failures.getAndUpdate(remaining -> Math.max(0, remaining - 1)) > 0) {
+                throw new DataAccessResourceFailureException("Database is down");
+            }
+            for (T entry : batchArgs) {
+                int userId = ((Token) entry).getUser().getUserId();
+                if (userId == badUserId) {
+                    throw new DataIntegrityViolationException("Duplicate entry");
+                }
+                if (userId == unavailableUserId) {
+                    throw new DataAccessResourceFailureException("Connection reset");
+                }
+            }
+            if (block) {
+                writing.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            batchSizes.add(batchArgs.size());
+            written.addAll(new ArrayList<>(batchArgs));
+            return new int[0][];
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.user.token;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TokenPurgeServiceTests {
+
+    private static final long HOUR = 3_600_000L;
+
+    private static final long DAY = 24 * HOUR;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /** Token ledger, expiry by id */
+    private final Map<Integer, Date> ledger = new ConcurrentSkipListMap<>();
+
+    private final List<Integer> pagedAfterIds = new ArrayList<>();
+
+    private final List<Integer> pageSizes = new ArrayList<>();
+
+    private final List<Integer> deletedChunks = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        long now = System.currentTimeMillis();
+        for (int id = 1; id <= 25; id++) {
+            ledger.put(id, new Date(now - 2 * DAY));
+        }
+        for (int id = 26; id <= 30; id++) {
+            ledger.put(id, new Date(now - HOUR));
+        }
+        for (int id = 31; id <= 35; id++) {
+            ledger.put(id, new Date(now + HOUR));
+        }
+    }
+
+    @Test
+    void expiredRowsAreDeletedInChunksPagedById() {
+        TokenPurgeService purgeService = new TokenPurgeService(newTokenRepository(), meterRegistry, DAY, 10, 0);
+
+        assertEquals(25, purgeService.purge());
+
+        assertEquals(List.of(0, 10, 20), pagedAfterIds);
+        assertEquals(List.of(10, 10, 10), pageSizes);
+        assertEquals(List.of(10, 10, 5), deletedChunks);
+        assertEquals(26, ledger.keySet().iterator().next());
+    }
+
+    @Test
+    void rowsExpiredWithinTheRetentionAreKept() {
+        TokenPurgeService purgeService = new TokenPurgeService(newTokenRepository(), meterRegistry, 0, 100, 0);
+
+        assertEquals(30, purgeService.purge());
+
+        assertEquals(List.of(30), deletedChunks);
+        assertEquals(5, ledger.size());
+    }
+
+    @Test
+    void purgedRowsArePublishedPerRun() {
+        TokenPurgeService purgeService = new TokenPurgeService(newTokenRepository(), meterRegistry, DAY, 10, 0);
+
+        purgeService.purge();
+        purgeService.purge();
+
+        DistributionSummary purgedRows = meterRegistry.get("token.purge.rows").summary();
+        assertEquals(2, purgedRows.count());
+        assertEquals(25.0, purgedRows.totalAmount());
+    }
+
+    private TokenRepository newTokenRepository() {
+        return (TokenRepository) Proxy.newProxyInstance(TokenRepository.class.getClassLoader(),
+                new Class<?>[]{TokenRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findExpiredTokenIds" -> {
+                        Integer afterId = (Integer) args[0];
+                        Date cutoff = (Date) args[1];
+                        Pageable pageable = (Pageable) args[2];
+                        pagedAfterIds.add(afterId);
+                        pageSizes.add(pageable.getPageSize());
+                        yield ledger.entrySet().stream()
+                                .filter(row -> row.getKey() > afterId && row.getValue().before(cutoff))
+                                .map(Map.Entry::getKey)
+                                .limit(pageable.getPageSize())
+                                .toList();
+                    }
+                    case "deleteAllByIdInBatch" -> {
+                        int deleted = 0;
+                        for (Object id : (Iterable<?>) args[0]) {
+                            ledger.remove(id);
+                            deleted++;
+                        }
+                        deletedChunks.add(deleted);
+                        yield null;
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,147 @@
+package com.user.tracing;
+
+import com.user.cache.InMemoryDistributedCache;
+import com.user.cache.TwoTierCacheManager;
+import com.user.config.ExecutorConfig;
+import com.user.models.response.APIResponseEntity;
+import com.user.pojo.Address;
+import com.user.service.IAddressClient;
+import com.user.service.impl.AddressBatchLoader;
+import com.user.service.impl.ResilientAddressClient;
+import com.user.utils.Constants;
+import feign.RequestTemplate;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.context.ContextRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.handler.DefaultTracingObservationHandler;
+import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
+import io.micrometer.tracing.otel.bridge.OtelTracer;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JCircuitBreakerFactory;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TracingPropagationTests {
+
+    private final InMemorySpanExporter exporter = new InMemorySpanExporter(10);
+
+    private final ObservationRegistry observationRegistry = ObservationRegistry.create();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicReference<Collection<String>> sentReqId = new AtomicReference<>();
+
+    /**
+     * Stands in for the Feign client of ADDRESS-SERVICE, observing the call and applying the
+     * reqId interceptor the way Feign does.
+     */
+    private final IAddressClient stubAddressService = new IAddressClient() {
+
+        @Override
+        public APIResponseEntity<List<Address>> getAddresses(int userId) {
+            return Observation.createNotStarted("address-lookup", observationRegistry).observe(() -> {
+                RequestTemplate template = new RequestTemplate();
+                new RequestIdPropagationInterceptor().apply(template);
+                sentReqId.set(template.headers().get(Constants.REQ_ID_KEY));
+                return new APIResponseEntity<>("Success", "200", List.<Address>of());
+            });
+        }
+
+        @Override
+        public APIResponseEntity<Map<Integer, List<Address>>> getAddressesBatch(List<Integer> userIds) {
+            throw new UnsupportedOperationException();
+        }
+    };
+
+    private SdkTracerProvider tracerProvider;
+
+    private ExecutorService circuitBreakerExecutor;
+
+    private ExecutorService fanOutExecutor;
+
+    private AddressBatchLoader addressLoader;
+
+    private ResilientAddressClient addressClient;
+
+    @BeforeEach
+    void setUp() {
+        ContextRegistry.getInstance().registerThreadLocalAccessor(new RequestIdThreadLocalAccessor());
+        tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                .build();
+        OtelTracer tracer = new OtelTracer(tracerProvider.get("test"), new OtelCurrentTraceContext(), event -> {
+        });
+        observationRegistry.observationConfig().observationHandler(new DefaultTracingObservationHandler(tracer));
+
+        // The executors and circuit breaker factory customization of the application
+        ExecutorConfig executorConfig = new ExecutorConfig(new StandardEnvironment());
+        circuitBreakerExecutor = executorConfig.circuitBreakerExecutor(meterRegistry, 4, 16);
+        fanOutExecutor = (ExecutorService) executorConfig.addressFanOutExecutor(meterRegistry, 2, 10);
+        Resilience4JCircuitBreakerFactory circuitBreakerFactory = new Resilience4JCircuitBreakerFactory(
+                CircuitBreakerRegistry.ofDefaults(), TimeLimiterRegistry.ofDefaults(), null);
+        executorConfig.circuitBreakerExecutorCustomizer(circuitBreakerExecutor).customize(circuitBreakerFactory);
+
+        addressLoader = new AddressBatchLoader(stubAddressService, fanOutExecutor, false, 50, 100);
+        addressClient = new ResilientAddressClient(addressLoader, circuitBreakerFactory,
+                new TwoTierCacheManager(new InMemoryDistributedCache(100), meterRegistry, 30_000L),
+                fanOutExecutor, 100, 30_000, 60_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        addressLoader.shutdown();
+        fanOutExecutor.shutdown();
+        circuitBreakerExecutor.shutdown();
+        tracerProvider.close();
+        MDC.clear();
+    }
+
+    @Test
+    void spanParentAndReqIdFollowTheCallThroughTheCircuitBreakerIntoFeign() {
+        Observation request = Observation.start("request", observationRegistry);
+        try (Observation.Scope ignored = request.openScope()) {
+            MDC.put(Constants.REQ_ID_KEY, "REQ1");
+            addressClient.getAddresses(1);
+        } finally {
+            request.stop();
+        }
+
+        List<SpanData> spans = exporter.getFinishedSpans();
+        assertEquals(2, spans.size());
+        SpanData child = spans.get(0);
+        SpanData parent = spans.get(1);
+        assertEquals(parent.getTraceId(), child.getTraceId());
+        assertEquals(parent.getSpanId(), child.getParentSpanId());
+        assertEquals(List.of("REQ1"), List.copyOf(sentReqId.get()));
+    }
+
+    @Test
+    void exporterKeepsOnlyTheMostRecentSpans() {
+        InMemorySpanExporter small = new InMemorySpanExporter(2);
+        try (SdkTracerProvider provider = SdkTracerProvider.builder()
+                .addSpanProcessor(SimpleSpanProcessor.create(small))
+                .build()) {
+            for (String name : List.of("first", "second", "third")) {
+                provider.get("test").spanBuilder(name).startSpan().end();
+            }
+        }
+
+        assertEquals(List.of("second", "third"), small.getFinishedSpans().stream().map(SpanData::getName).toList());
+    }
+}
@@ -0,0 +1,56 @@
+package com.user.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestIdGeneratorTests {
+
+    @Test
+    void idsAreIncreasingAndShareTheNodeId() {
+        String first = RequestIdGenerator.nextId();
+        String second = RequestIdGenerator.nextId();
+
+        assertEquals(27, first.length());
+        assertTrue(first.startsWith("REQ"));
+        assertTrue(first.compareTo(second) < 0);
+        assertEquals(first.substring(19), second.substring(19));
+    }
+
+    @Test
+    void concurrentCallersNeverGetTheSameId() throws InterruptedException {
+        int threads = 8;
+        int perThread = 10_000;
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int j = 0; j < perThread; j++) {
+                    ids.add(RequestIdGenerator.nextId());
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(threads * perThread, ids.size());
+    }
+}